@@ -0,0 +1,55 @@
+package com.example.apigateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    // An idle bucket refills completely, so forgetting it after the idle timeout changes nothing
+    private final Cache<String, AtomicReference<Bucket>> buckets;
+
+    public InMemoryTokenBucketStore(
+            @Value("${application.config.rate-limit.max-buckets:100000}") long maxBuckets,
+            @Value("${application.config.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public Mono<ConsumeResult> tryConsume(String key, int burstCapacity, int replenishRate, int requestedTokens) {
+        long now = System.nanoTime();
+        AtomicReference<Bucket> bucket = buckets.get(key, k -> new AtomicReference<>(new Bucket(burstCapacity, now)));
+        return Mono.just(consume(bucket, burstCapacity, replenishRate / NANOS_PER_SECOND, requestedTokens, now));
+    }
+
+    private static ConsumeResult consume(AtomicReference<Bucket> bucket, int capacity, double tokensPerNano,
+            int requested, long now) {
+        while (true) {
+            Bucket current = bucket.get();
+            long elapsed = Math.max(0, now - current.refilledAt());
+            double available = Math.min(capacity, current.tokens() + elapsed * tokensPerNano);
+            if (available < requested) {
+                return new ConsumeResult(false, (long) available);
+            }
+
+            Bucket next = new Bucket(available - requested, Math.max(now, current.refilledAt()));
+            if (bucket.compareAndSet(current, next)) {
+                return new ConsumeResult(true, (long) next.tokens());
+            }
+        }
+    }
+
+    private record Bucket(double tokens, long refilledAt) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.apigateway.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -10,15 +11,31 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Access-logs a sample of requests. Route latency comes from the
+ * spring.cloud.gateway.requests metric, and trace context is propagated
+ * downstream as W3C traceparent by the gateway's observation support.
+ */
 @Component
 @Slf4j
 public class LoggingGlobalFilter implements GlobalFilter, Ordered {
 
+    private final double sampleRate;
+
+    public LoggingGlobalFilter(@Value("${application.config.request-log-sample-rate:0.0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        long startTime = System.currentTimeMillis();
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return chain.filter(exchange);
+        }
 
-        return ReactiveSecurityContextHolder.getContext()
+        long startTime = System.nanoTime();
+        return chain.filter(exchange).then(ReactiveSecurityContextHolder.getContext()
                 .map(ctx -> ctx.getAuthentication().getPrincipal())
                 .cast(Jwt.class)
                 .map(jwt -> {
@@ -26,31 +43,20 @@ public class LoggingGlobalFilter implements GlobalFilter, Ordered {
                     return username != null ? username : jwt.getSubject();
                 })
                 .defaultIfEmpty("anonymous")
-                .flatMap(username -> {
-                    String traceId = java.util.UUID.randomUUID().toString();
-                    ServerWebExchange mutatedExchange = exchange.mutate()
-                            .request(exchange.getRequest().mutate().header("X-Trace-Id", traceId).build())
-                            .build();
-
-                    log.info("Gateway Request: traceId={} method={} path={} user={}",
-                            traceId, exchange.getRequest().getMethod(), exchange.getRequest().getURI().getPath(),
+                .doOnNext(username -> {
+                    long duration = (System.nanoTime() - startTime) / 1_000_000;
+                    log.info("Gateway Response: method={} path={} status={} duration={}ms user={}",
+                            exchange.getRequest().getMethod(),
+                            exchange.getRequest().getURI().getPath(),
+                            exchange.getResponse().getStatusCode(),
+                            duration,
                             username);
-
-                    return chain.filter(mutatedExchange).then(Mono.fromRunnable(() -> {
-                        long duration = System.currentTimeMillis() - startTime;
-                        log.info("Gateway Response: traceId={} method={} path={} status={} duration={}ms user={}",
-                                traceId,
-                                exchange.getRequest().getMethod(),
-                                exchange.getRequest().getURI().getPath(),
-                                exchange.getResponse().getStatusCode(),
-                                duration,
-                                username);
-                    }));
-                });
+                })
+                .then());
     }
 
     @Override
     public int getOrder() {
-        return -1; // Run early
+        return Ordered.HIGHEST_PRECEDENCE; // Run first so responses served from cache are logged too
     }
 }
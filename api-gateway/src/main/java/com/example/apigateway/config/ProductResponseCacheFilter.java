@@ -0,0 +1,261 @@
+package com.example.apigateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Serves catalog reads from memory, with the upstream headers they were first
+ * sent with. Responses carry an ETag so clients can revalidate with
+ * If-None-Match, and any product write routed through the gateway clears the
+ * cache. Stock reserved or released by order-service bypasses the gateway, so
+ * cached stock quantities can lag by up to the TTL
+ * (application.config.response-cache.ttl). Only bodies up to the entry size
+ * limit are held in memory; larger ones stream through untouched.
+ */
+@Component
+public class ProductResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final String PRODUCTS_PATH = "/api/products";
+    private static final String BATCH_PATH = "/api/products/batch";
+    private static final String EVENTS_PATH = "/api/products/events";
+    private static final Set<String> UNCACHED_PATHS = Set.of("/api/products/stream", "/api/products/changes");
+    // Describe one exchange rather than the body, so they are never replayed
+    private static final Set<String> PER_RESPONSE_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.DATE, HttpHeaders.SET_COOKIE,
+            HttpHeaders.ETAG, TokenBucketRateLimiter.REMAINING_HEADER);
+
+    private final Cache<String, CachedResponse> cache;
+    private final long maxEntryBytes;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductResponseCacheFilter(MeterRegistry meterRegistry,
+            @Value("${application.config.response-cache.ttl:10s}") Duration ttl,
+            @Value("${application.config.response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${application.config.response-cache.max-entry-size:1MB}") DataSize maxEntrySize) {
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getURI().getPath();
+        if (!path.equals(PRODUCTS_PATH) && !path.startsWith(PRODUCTS_PATH + "/")) {
+            return chain.filter(exchange);
+        }
+        // Event reads and offset commits neither read nor change the catalog
+        if (path.equals(EVENTS_PATH) || path.startsWith(EVENTS_PATH + "/")) {
+            return chain.filter(exchange);
+        }
+
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.GET.equals(method)) {
+            return UNCACHED_PATHS.contains(path) ? chain.filter(exchange) : serveCached(exchange, chain);
+        }
+        if (HttpMethod.POST.equals(method) && path.equals(BATCH_PATH)) {
+            return chain.filter(exchange);
+        }
+        if (HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method) || HttpMethod.DELETE.equals(method)) {
+            return chain.filter(exchange).doFinally(signal -> invalidateAll());
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        // Right after request logging: hits return before the route's rate limiter takes a token, and
+        // misses still wrap the response before NettyWriteResponseFilter writes the proxied body
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    private Mono<Void> serveCached(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String key = cacheKey(exchange.getRequest());
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached == null) {
+            CachingResponse response = new CachingResponse(exchange, key, generation.get());
+            return chain.filter(exchange.mutate().response(response).build());
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setETag(cached.etag());
+        if (notModified(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().addAll(cached.headers());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void store(String key, long observedGeneration, CachedResponse response) {
+        if (generation.get() != observedGeneration) {
+            return;
+        }
+        cache.put(key, response);
+        // A write that finished while we were storing may have missed this entry
+        if (generation.get() != observedGeneration) {
+            cache.invalidate(key);
+        }
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    // Accept is part of the key, as content negotiation may pick another body for the same URI
+    private static String cacheKey(ServerHttpRequest request) {
+        String accept = String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT));
+        String query = request.getURI().getRawQuery();
+        String uri = query == null ? request.getURI().getRawPath() : request.getURI().getRawPath() + "?" + query;
+        return accept + " " + uri;
+    }
+
+    private static long byteCount(List<DataBuffer> buffers) {
+        return buffers.stream().mapToLong(DataBuffer::readableByteCount).sum();
+    }
+
+    private static byte[] read(List<DataBuffer> buffers) {
+        byte[] bytes = new byte[(int) byteCount(buffers)];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+    private static boolean notModified(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    private record CachedResponse(HttpHeaders headers, byte[] body, String etag) {
+    }
+
+    /** True from the buffer that takes the running total past the limit onwards. */
+    private static class ByteCountLimit implements Predicate<DataBuffer> {
+
+        private final long limit;
+        private long total;
+
+        ByteCountLimit(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean test(DataBuffer buffer) {
+            total += buffer.readableByteCount();
+            return total > limit;
+        }
+    }
+
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final String key;
+        private final long observedGeneration;
+        // Set by the gateway's own web filters (CORS, for one) for this request, not by product-service
+        private final Set<String> gatewayHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        CachingResponse(ServerWebExchange exchange, String key, long observedGeneration) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.key = key;
+            this.observedGeneration = observedGeneration;
+            gatewayHeaders.addAll(exchange.getResponse().getHeaders().keySet());
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value()) {
+                return super.writeWith(body);
+            }
+
+            long contentLength = getHeaders().getContentLength();
+            if (contentLength > maxEntryBytes) {
+                return super.writeWith(body);
+            }
+
+            // Collects only up to maxEntryBytes: the first chunk is the whole body if it fits, else the
+            // buffers up to the one that crossed the limit, followed by the rest one at a time
+            return Flux.<DataBuffer>from(body)
+                    .bufferUntil(new ByteCountLimit(maxEntryBytes))
+                    .switchOnFirst((first, chunks) -> {
+                        if (first.hasValue() && byteCount(first.get()) > maxEntryBytes) {
+                            // Too large to cache or tag, so it streams through as it arrives
+                            return super.writeWith(chunks.concatMapIterable(Function.identity()));
+                        }
+                        return chunks.next()
+                                .map(ProductResponseCacheFilter::read)
+                                .defaultIfEmpty(new byte[0])
+                                .flatMap(this::writeCacheable);
+                    })
+                    .then();
+        }
+
+        private Mono<Void> writeCacheable(byte[] bytes) {
+            String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            getHeaders().setETag(etag);
+            store(key, observedGeneration, new CachedResponse(upstreamHeaders(), bytes, etag));
+
+            if (notModified(request, etag)) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                return setComplete();
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private HttpHeaders upstreamHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (!gatewayHeaders.contains(name) && PER_RESPONSE_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.addAll(name, values);
+                }
+            });
+            return HttpHeaders.readOnlyHttpHeaders(headers);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.apigateway.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -16,6 +18,7 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 import reactor.core.publisher.Mono;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -30,7 +33,15 @@ public class SecurityConfig {
                 .cors(org.springframework.security.config.Customizer.withDefaults())
                 .authorizeExchange(exchanges -> exchanges
                         .pathMatchers(HttpMethod.OPTIONS).permitAll()
+                        // Change event streams are for back-office consumers
+                        .pathMatchers("/api/products/events", "/api/products/events/**").hasRole("ADMIN")
+                        .pathMatchers("/api/orders/events", "/api/orders/events/**").hasRole("ADMIN")
+                        // Dashboard aggregates
+                        .pathMatchers(HttpMethod.GET, "/api/orders/stats/**", "/api/products/low-stock").hasRole("ADMIN")
+
                         // Product Service Rules
+                        .pathMatchers(HttpMethod.POST, "/api/products/batch").hasAnyRole("ADMIN", "CLIENT")
+                        .pathMatchers("/api/products/reserve", "/api/products/release").denyAll()
                         .pathMatchers(HttpMethod.POST, "/api/products/**").hasRole("ADMIN")
                         .pathMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
                         .pathMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
@@ -40,6 +51,7 @@ public class SecurityConfig {
                         .pathMatchers(HttpMethod.POST, "/api/orders/**").hasRole("CLIENT")
                         .pathMatchers(HttpMethod.GET, "/api/orders/my").hasRole("CLIENT")
                         .pathMatchers(HttpMethod.GET, "/api/orders").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.GET, "/api/orders/*", "/api/orders/*/events").hasAnyRole("ADMIN", "CLIENT")
                         .pathMatchers("/actuator/**").permitAll()
 
                         .anyExchange().authenticated())
@@ -57,16 +69,23 @@ public class SecurityConfig {
 }
 
 class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    // Keyed by role list; users share a few combinations
+    private final Cache<List<String>, List<GrantedAuthority>> authorities = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .build();
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
         Map<String, Object> realmAccess = jwt.getClaim("realm_access");
         if (realmAccess == null || realmAccess.isEmpty()) {
-            return java.util.List.of();
+            return List.of();
         }
 
-        return ((Collection<String>) realmAccess.get("roles")).stream()
+        List<String> roles = List.copyOf((Collection<String>) realmAccess.get("roles"));
+        return authorities.get(roles, key -> key.stream()
                 .map(roleName -> "ROLE_" + roleName)
                 .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList()));
     }
 }
@@ -0,0 +1,52 @@
+package com.example.apigateway.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Token-bucket limiter for the RequestRateLimiter filter. Limits are set per
+ * route with token-bucket.* filter args and applied per user and route.
+ */
+@Component
+public class TokenBucketRateLimiter extends AbstractRateLimiter<TokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "token-bucket";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final TokenBucketStore store;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig = new Config();
+
+    public TokenBucketRateLimiter(TokenBucketStore store, MeterRegistry meterRegistry,
+            ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        return store.tryConsume(routeId + ":" + id, config.getBurstCapacity(), config.getReplenishRate(),
+                        config.getRequestedTokens())
+                .map(result -> {
+                    if (!result.allowed()) {
+                        meterRegistry.counter("gateway.ratelimit.rejected", "route", routeId).increment();
+                    }
+                    return new Response(result.allowed(), Map.of(REMAINING_HEADER, String.valueOf(result.remaining())));
+                });
+    }
+
+    @Data
+    public static class Config {
+        private int replenishRate = 10;
+        private int burstCapacity = 20;
+        private int requestedTokens = 1;
+    }
+}
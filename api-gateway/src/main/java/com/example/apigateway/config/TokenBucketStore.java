@@ -0,0 +1,16 @@
+package com.example.apigateway.config;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds the token buckets behind {@link TokenBucketRateLimiter}. The default
+ * store is in-memory per gateway instance; a shared implementation can be
+ * registered instead when the gateway is scaled out.
+ */
+public interface TokenBucketStore {
+
+    Mono<ConsumeResult> tryConsume(String key, int burstCapacity, int replenishRate, int requestedTokens);
+
+    record ConsumeResult(boolean allowed, long remaining) {
+    }
+}
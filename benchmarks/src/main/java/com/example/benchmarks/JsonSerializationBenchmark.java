@@ -0,0 +1,72 @@
+package com.example.benchmarks;
+
+import com.example.orderservice.dto.OrderItemResponse;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.productservice.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body serialization with the same ObjectMapper defaults Spring Boot
+ * configures for the services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ProductResponse product;
+    private List<ProductResponse> catalogPage;
+    private OrderResponse order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        product = new ProductResponse(1L, "Laptop", "High-performance laptop", new BigDecimal("999.99"), 50);
+
+        catalogPage = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            catalogPage.add(new ProductResponse(i, "Product " + i, "Description of product " + i,
+                    new BigDecimal("19.99"), 100));
+        }
+
+        List<OrderItemResponse> items = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            items.add(new OrderItemResponse(i, "Product #" + i, 2, new BigDecimal("19.99"), new BigDecimal("39.98")));
+        }
+        order = new OrderResponse(1L, LocalDateTime.now(), OrderStatus.PENDING, new BigDecimal("399.80"),
+                "7f1c2c3e-benchmark-user", items);
+    }
+
+    @Benchmark
+    public byte[] productResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(catalogPage);
+    }
+
+    @Benchmark
+    public byte[] orderResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.benchmarks;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Keycloak-style access tokens for the role converter benchmarks. */
+public final class RealmRoleTokens {
+
+    private RealmRoleTokens() {
+    }
+
+    /** A token whose realm_access claim holds roleCount roles, CLIENT among them. */
+    public static Jwt withRoles(int roleCount) {
+        List<String> roles = new ArrayList<>(List.of("CLIENT", "default-roles-microshop"));
+        for (int i = roles.size(); i < roleCount; i++) {
+            roles.add("role-" + i);
+        }
+
+        return Jwt.withTokenValue("benchmark-token")
+                .header("alg", "RS256")
+                .subject("7f1c2c3e-benchmark-user")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("realm_access", Map.of("roles", roles))
+                .build();
+    }
+}
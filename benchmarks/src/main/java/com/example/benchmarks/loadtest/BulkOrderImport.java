@@ -0,0 +1,177 @@
+package com.example.benchmarks.loadtest;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.flywaydb.core.Flyway;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import javax.sql.DataSource;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk order import against order-service's schema and JPA mapping, without
+ * HTTP or product-service in the way: each virtual user persists import-batch
+ * orders of order-items items per transaction. Running it again with
+ * --jdbc-batching=false shows what JDBC batching saves on the same sequences.
+ */
+final class BulkOrderImport {
+
+    private static final int HIBERNATE_BATCH_SIZE = 50;
+
+    private BulkOrderImport() {
+    }
+
+    static Report run(String jdbcUrl, LoadTestOptions options) {
+        HikariConfig pool = new HikariConfig();
+        pool.setJdbcUrl(jdbcUrl);
+        pool.setUsername("postgres");
+        pool.setPassword("postgres");
+        pool.setMaximumPoolSize(options.concurrency());
+
+        try (HikariDataSource dataSource = new HikariDataSource(pool)) {
+            migrate(dataSource);
+            try (SessionFactory sessionFactory = sessionFactory(dataSource, options.jdbcBatching())) {
+                return importOrders(sessionFactory, options);
+            }
+        }
+    }
+
+    private static Report importOrders(SessionFactory sessionFactory, LoadTestOptions options) {
+        Recorder recorder = new Recorder(3);
+        LongAdder orders = new LongAdder();
+        LongAdder failures = new LongAdder();
+
+        long measureFrom = System.nanoTime() + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        try (ExecutorService users = Executors.newFixedThreadPool(options.concurrency())) {
+            for (int i = 0; i < options.concurrency(); i++) {
+                users.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        boolean committed = importBatch(sessionFactory, random, options);
+                        if (start < measureFrom) {
+                            continue;
+                        }
+                        recorder.recordValue(System.nanoTime() - start);
+                        if (committed) {
+                            orders.add(options.importBatch());
+                        } else {
+                            failures.increment();
+                        }
+                    }
+                });
+            }
+        }
+
+        return new Report(options, recorder.getIntervalHistogram(), orders.sum(),
+                orders.sum() * (options.orderItems() + 1L), failures.sum());
+    }
+
+    private static boolean importBatch(SessionFactory sessionFactory, ThreadLocalRandom random,
+            LoadTestOptions options) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                for (int i = 0; i < options.importBatch(); i++) {
+                    session.persist(newOrder(random, options));
+                }
+                transaction.commit();
+                return true;
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                return false;
+            }
+        }
+    }
+
+    private static Order newOrder(ThreadLocalRandom random, LoadTestOptions options) {
+        Order order = Order.builder()
+                .userId("bulk-import")
+                .orderDate(LocalDateTime.now())
+                .status(OrderStatus.CONFIRMED)
+                .build();
+        List<OrderItem> items = new ArrayList<>(options.orderItems());
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < options.orderItems(); i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(100, 100_000), 2);
+            items.add(OrderItem.builder()
+                    .productId(random.nextLong(1, options.catalogSize() + 1L))
+                    .productName("Product " + i)
+                    .quantity(1)
+                    .priceSnapshot(price)
+                    .order(order)
+                    .build());
+            total = total.add(price);
+        }
+        order.setItems(items);
+        order.setTotalAmount(total);
+        return order;
+    }
+
+    // Only order-service's migrations: product-service's jar has its own under the same classpath location
+    private static void migrate(DataSource dataSource) {
+        URL orderServiceJar = Order.class.getProtectionDomain().getCodeSource().getLocation();
+        Flyway.configure(new URLClassLoader(new URL[] {orderServiceJar}, null))
+                .dataSource(dataSource)
+                .load()
+                .migrate();
+    }
+
+    // The settings order-service runs with; a batch size of 1 turns JDBC batching off
+    private static SessionFactory sessionFactory(HikariDataSource dataSource, boolean jdbcBatching) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderItem.class)
+                .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE,
+                        String.valueOf(jdbcBatching ? HIBERNATE_BATCH_SIZE : 1))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true");
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        return configuration.buildSessionFactory();
+    }
+
+    record Report(LoadTestOptions options, Histogram latencies, long orders, long rows, long failures) {
+
+        void print(PrintStream out) {
+            Duration duration = options.duration();
+            out.printf("scenario=%s concurrency=%d duration=%ds orders/transaction=%d items/order=%d jdbc-batching=%s%n",
+                    LoadTestOptions.BULK_ORDERS, options.concurrency(), duration.toSeconds(), options.importBatch(),
+                    options.orderItems(), options.jdbcBatching());
+            out.printf("transactions=%d failed=%d orders=%d rate=%.1f orders/s%n",
+                    latencies.getTotalCount(), failures, orders, orders / (double) duration.toSeconds());
+            out.printf("rows inserted=%d rate=%.1f rows/s%n", rows, rows / (double) duration.toSeconds());
+            out.printf("transaction latency ms p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getMaxValue()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.benchmarks.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stands in for Keycloak: serves a JWK set and mints RS256 tokens shaped like
+ * the microshop realm's (realm_access.roles, preferred_username).
+ */
+class JwtIssuerStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final RSAKey signingKey;
+    private final String issuer;
+
+    private JwtIssuerStub(HttpServer server, RSAKey signingKey) {
+        this.server = server;
+        this.signingKey = signingKey;
+        this.issuer = "http://localhost:" + server.getAddress().getPort() + "/realms/microshop";
+    }
+
+    static JwtIssuerStub start() throws IOException, JOSEException {
+        RSAKey signingKey = new RSAKeyGenerator(2048).keyID("load-test").generate();
+        byte[] jwks = new JWKSet(signingKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/realms/microshop/protocol/openid-connect/certs", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwks.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(jwks);
+            }
+        });
+        server.start();
+        return new JwtIssuerStub(server, signingKey);
+    }
+
+    String issuer() {
+        return issuer;
+    }
+
+    String jwkSetUri() {
+        return issuer + "/protocol/openid-connect/certs";
+    }
+
+    String mintToken(String username, List<String> roles, Duration lifetime) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8)).toString())
+                .claim("preferred_username", username)
+                .claim("realm_access", Map.of("roles", roles))
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(lifetime)))
+                .build();
+
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.benchmarks.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop driver: each virtual user sends its next request as soon as the
+ * previous one completes. Only requests started after the warmup are recorded.
+ */
+class LoadDriver {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    Report run(Scenario scenario, Scenario.Target target, int concurrency, Duration warmup, Duration duration) {
+        Recorder recorder = new Recorder(3);
+        LongAdder success = new LongAdder();
+        LongAdder clientErrors = new LongAdder();
+        LongAdder serverErrors = new LongAdder();
+        LongAdder failures = new LongAdder();
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                users.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        HttpRequest request = scenario.next(random, target);
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            status = -1;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        if (start < measureFrom) {
+                            continue;
+                        }
+                        recorder.recordValue(System.nanoTime() - start);
+                        if (status < 0) {
+                            failures.increment();
+                        } else if (status >= 500) {
+                            serverErrors.increment();
+                        } else if (status >= 400) {
+                            clientErrors.increment();
+                        } else {
+                            success.increment();
+                        }
+                    }
+                });
+            }
+        }
+
+        return new Report(scenario, concurrency, duration, recorder.getIntervalHistogram(),
+                success.sum(), clientErrors.sum(), serverErrors.sum(), failures.sum(),
+                success.sum() * scenario.rowsWritten(target));
+    }
+
+    record Report(
+            Scenario scenario,
+            int concurrency,
+            Duration duration,
+            Histogram latencies,
+            long success,
+            long clientErrors,
+            long serverErrors,
+            long failures,
+            long rows) {
+
+        void print(PrintStream out) {
+            out.printf("scenario=%s concurrency=%d duration=%ds%n", scenario, concurrency, duration.toSeconds());
+            out.printf("requests=%d throughput=%.1f req/s%n",
+                    latencies.getTotalCount(), latencies.getTotalCount() / (double) duration.toSeconds());
+            out.printf("status 2xx/3xx=%d 4xx=%d 5xx=%d io-errors=%d%n", success, clientErrors, serverErrors, failures);
+            if (rows > 0) {
+                out.printf("rows inserted=%d rate=%.1f rows/s%n", rows, rows / (double) duration.toSeconds());
+            }
+            out.printf("latency ms p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
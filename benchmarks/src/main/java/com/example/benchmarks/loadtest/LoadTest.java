@@ -0,0 +1,179 @@
+package com.example.benchmarks.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * End-to-end load scenario: embedded Postgres, a stand-in JWT issuer, and the
+ * three services started from their jars, driven through the gateway.
+ *
+ * <pre>
+ * mvn -f product-service/pom.xml install -DskipTests   (same for order-service and api-gateway)
+ * mvn -f benchmarks/pom.xml compile exec:exec@load-test -Dload.args="--scenario=orders --concurrency=128"
+ * </pre>
+ *
+ * Options: scenario (catalog, orders, large-orders, bulk-orders, hot-sku, list-all, list-stream,
+ * mixed), concurrency, warmup and duration in seconds, catalog-size, order-items (items per order
+ * for large-orders and bulk-orders), import-batch (orders per bulk-orders transaction),
+ * jdbc-batching (false turns off order-service's JDBC batching), h2c (order-service to
+ * product-service over cleartext HTTP/2), product-profile (e.g. reactive-reads), project-root.
+ * bulk-orders only needs the database and starts no services.
+ */
+public final class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final String CONNECT_METRIC = "reactor.netty.http.client.connect.time";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        if (options.bulkOrders()) {
+            try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+                createDatabases(postgres);
+                BulkOrderImport.run(jdbcUrl(postgres, "orderdb", options.jdbcBatching()), options).print(System.out);
+            }
+            return;
+        }
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+                JwtIssuerStub issuer = JwtIssuerStub.start()) {
+            createDatabases(postgres);
+
+            List<String> security = List.of(
+                    "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + issuer.issuer(),
+                    "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + issuer.jwkSetUri(),
+                    "--logging.level.com.example=WARN");
+
+            try (ServiceProcess product = ServiceProcess.start("product-service", options.jar("product-service"),
+                    freePort(), concat(security, datasource(postgres, "productdb", true), profile(postgres, options)))) {
+                product.awaitHealthy(STARTUP_TIMEOUT);
+                seedCatalog(postgres, options.catalogSize());
+
+                try (ServiceProcess order = ServiceProcess.start("order-service", options.jar("order-service"),
+                        freePort(), concat(security, datasource(postgres, "orderdb", options.jdbcBatching()), List.of(
+                                "--application.config.product-service-url=http://localhost:" + product.port()
+                                        + "/api/products",
+                                "--application.config.product-client.h2c=" + options.h2c(),
+                                // A batch size of 1 sends one INSERT per row, as IDENTITY ids forced
+                                "--spring.jpa.properties.hibernate.jdbc.batch_size="
+                                        + (options.jdbcBatching() ? 50 : 1))))) {
+                    order.awaitHealthy(STARTUP_TIMEOUT);
+
+                    try (ServiceProcess gateway = ServiceProcess.start("api-gateway", options.jar("api-gateway"),
+                            freePort(), concat(security, List.of(
+                                    "--PRODUCT_SERVICE_URL=http://localhost:" + product.port(),
+                                    "--ORDER_SERVICE_URL=http://localhost:" + order.port(),
+                                    // Every virtual user shares one token, so lift the per-user limits
+                                    "--application.config.rate-limit.products.replenish-rate=1000000",
+                                    "--application.config.rate-limit.products.burst-capacity=1000000",
+                                    "--application.config.rate-limit.orders.replenish-rate=1000000",
+                                    "--application.config.rate-limit.orders.burst-capacity=1000000")))) {
+                        gateway.awaitHealthy(STARTUP_TIMEOUT);
+
+                        String token = issuer.mintToken("load-client", List.of("CLIENT"), Duration.ofHours(1));
+                        Scenario.Target target = new Scenario.Target(
+                                URI.create("http://localhost:" + gateway.port()),
+                                URI.create("http://localhost:" + product.port()), token, options.catalogSize(),
+                                options.orderItems());
+
+                        long started = System.nanoTime();
+                        double connectionsBefore = order.metric(CONNECT_METRIC, "COUNT");
+                        try (ResourceSampler productResources = ResourceSampler.start(product)) {
+                            new LoadDriver()
+                                    .run(options.requestScenario(), target, options.concurrency(), options.warmup(),
+                                            options.duration())
+                                    .print(System.out);
+                            productResources.print(System.out, options.concurrency());
+                        }
+
+                        // Every new connection from order-service to product-service records one connect time
+                        double connections = order.metric(CONNECT_METRIC, "COUNT") - connectionsBefore;
+                        double seconds = (System.nanoTime() - started) / 1e9;
+                        System.out.printf("order-service connections to product-service=%.0f rate=%.1f conn/s%n",
+                                connections, connections / seconds);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void createDatabases(EmbeddedPostgres postgres) throws SQLException {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE productdb");
+            statement.execute("CREATE DATABASE orderdb");
+        }
+    }
+
+    private static List<String> datasource(EmbeddedPostgres postgres, String database, boolean jdbcBatching) {
+        return List.of(
+                "--spring.datasource.url=" + jdbcUrl(postgres, database, jdbcBatching),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.jpa.show-sql=false");
+    }
+
+    private static List<String> profile(EmbeddedPostgres postgres, LoadTestOptions options) {
+        if (options.productProfile().isEmpty()) {
+            return List.of();
+        }
+        return List.of(
+                "--spring.profiles.active=" + options.productProfile(),
+                "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/productdb",
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password=postgres");
+    }
+
+    private static String jdbcUrl(EmbeddedPostgres postgres, String database, boolean jdbcBatching) {
+        return "jdbc:postgresql://localhost:" + postgres.getPort() + "/" + database
+                + "?reWriteBatchedInserts=" + jdbcBatching;
+    }
+
+    // Rows go straight to the database once product-service has applied its migrations
+    private static void seedCatalog(EmbeddedPostgres postgres, int size) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl(postgres, "productdb", true), "postgres", "postgres")) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO products (name, description, price, stock_quantity) VALUES (?, ?, ?, ?)")) {
+                for (int i = 1; i <= size; i++) {
+                    insert.setString(1, "Product " + i);
+                    insert.setString(2, "Load test product " + i);
+                    insert.setBigDecimal(3, BigDecimal.valueOf(1_999 + i % 10_000, 2));
+                    insert.setInt(4, 1_000_000_000);
+                    insert.addBatch();
+                    if (i % 1_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... parts) {
+        return Arrays.stream(parts).flatMap(List::stream).toList();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.benchmarks.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parsed --key=value options. The scenario is kept by name: bulk-orders is
+ * run by {@link BulkOrderImport} against the database, every other name is a
+ * {@link Scenario} of requests.
+ */
+record LoadTestOptions(
+        String scenario,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        int catalogSize,
+        int orderItems,
+        int importBatch,
+        boolean jdbcBatching,
+        boolean h2c,
+        String productProfile,
+        Path projectRoot) {
+
+    static final String BULK_ORDERS = "bulk-orders";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                values.getOrDefault("scenario", "mixed").toLowerCase(Locale.ROOT),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Integer.parseInt(values.getOrDefault("catalog-size", "10000")),
+                Integer.parseInt(values.getOrDefault("order-items", "200")),
+                Integer.parseInt(values.getOrDefault("import-batch", "100")),
+                Boolean.parseBoolean(values.getOrDefault("jdbc-batching", "true")),
+                Boolean.parseBoolean(values.getOrDefault("h2c", "false")),
+                values.getOrDefault("product-profile", ""),
+                Path.of(values.getOrDefault("project-root", "..")));
+        if (!options.bulkOrders()) {
+            options.requestScenario(); // Fails on an unknown name before anything starts
+        }
+        return options;
+    }
+
+    boolean bulkOrders() {
+        return scenario.equals(BULK_ORDERS);
+    }
+
+    Scenario requestScenario() {
+        return Scenario.valueOf(scenario.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    Path jar(String service) {
+        return projectRoot.resolve(service).resolve("target").resolve(service + "-0.0.1-SNAPSHOT-exec.jar");
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.benchmarks.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Polls a service's actuator once a second during a run and keeps the peak
+ * heap, live threads and busy JDBC connections, so a blocking and a reactive
+ * run can be compared per concurrent connection.
+ */
+class ResourceSampler implements AutoCloseable {
+
+    private final ServiceProcess service;
+    private final double idleHeap;
+    private final DoubleAccumulator peakHeap = new DoubleAccumulator(Math::max, 0);
+    private final DoubleAccumulator peakThreads = new DoubleAccumulator(Math::max, 0);
+    private final DoubleAccumulator peakJdbcConnections = new DoubleAccumulator(Math::max, 0);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private ResourceSampler(ServiceProcess service, double idleHeap) {
+        this.service = service;
+        this.idleHeap = idleHeap;
+    }
+
+    static ResourceSampler start(ServiceProcess service) throws IOException, InterruptedException {
+        ResourceSampler sampler = new ResourceSampler(service, service.metric("jvm.memory.used", "area:heap", "VALUE"));
+        sampler.scheduler.scheduleAtFixedRate(sampler::sample, 0, 1, TimeUnit.SECONDS);
+        return sampler;
+    }
+
+    void print(PrintStream out, int concurrency) {
+        double perConnection = Math.max(0, peakHeap.get() - idleHeap) / concurrency;
+        out.printf("%s peak heap=%.1f MB (%.1f KB per connection above idle) threads=%.0f jdbc connections=%.0f%n",
+                service.name(), peakHeap.get() / (1024 * 1024), perConnection / 1024, peakThreads.get(),
+                peakJdbcConnections.get());
+    }
+
+    private void sample() {
+        try {
+            peakHeap.accumulate(service.metric("jvm.memory.used", "area:heap", "VALUE"));
+            peakThreads.accumulate(service.metric("jvm.threads.live", null, "VALUE"));
+            peakJdbcConnections.accumulate(service.metric("hikaricp.connections.active", null, "VALUE"));
+        } catch (IOException e) {
+            // Missed sample; the next one will do
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
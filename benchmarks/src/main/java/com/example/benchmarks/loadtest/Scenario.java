@@ -0,0 +1,122 @@
+package com.example.benchmarks.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Request mixes driven through the gateway, except the full-catalog listings,
+ * which go straight to product-service. Each call builds the next request for
+ * one virtual user.
+ */
+enum Scenario {
+    /** Catalog reads: by id, keyset pages and search. */
+    CATALOG {
+        @Override
+        HttpRequest next(ThreadLocalRandom random, Target target) {
+            int roll = random.nextInt(10);
+            if (roll < 6) {
+                return target.get("/api/products/" + target.randomProductId(random));
+            } else if (roll < 9) {
+                return target.get("/api/products?after=" + random.nextInt(target.catalogSize()) + "&limit=50");
+            }
+            return target.get("/api/products/search?query=Product%20" + random.nextInt(1000) + "&size=20");
+        }
+    },
+    /** Order placement with one to five random catalog items. */
+    ORDERS {
+        @Override
+        HttpRequest next(ThreadLocalRandom random, Target target) {
+            StringJoiner items = new StringJoiner(",", "{\"items\":[", "]}");
+            int itemCount = random.nextInt(1, 6);
+            for (int i = 0; i < itemCount; i++) {
+                items.add("{\"productId\":" + target.randomProductId(random) + ",\"quantity\":" + random.nextInt(1, 4) + "}");
+            }
+            return target.post("/api/orders", items.toString());
+        }
+    },
+    /** Orders of order-items distinct products each, to measure order and item inserts per second. */
+    LARGE_ORDERS {
+        @Override
+        HttpRequest next(ThreadLocalRandom random, Target target) {
+            StringJoiner items = new StringJoiner(",", "{\"items\":[", "]}");
+            long first = target.randomProductId(random);
+            for (int i = 0; i < target.orderItems(); i++) {
+                long productId = (first + i - 1) % target.catalogSize() + 1;
+                items.add("{\"productId\":" + productId + ",\"quantity\":1}");
+            }
+            return target.post("/api/orders", items.toString());
+        }
+
+        @Override
+        int rowsWritten(Target target) {
+            return target.orderItems() + 1;
+        }
+    },
+    /** Every order reserves the same product, to measure stock-row contention. */
+    HOT_SKU {
+        @Override
+        HttpRequest next(ThreadLocalRandom random, Target target) {
+            return target.post("/api/orders", "{\"items\":[{\"productId\":1,\"quantity\":1}]}");
+        }
+    },
+    /** Full catalog through the unbounded JSON listing, past the gateway's response cache. */
+    LIST_ALL {
+        @Override
+        HttpRequest next(ThreadLocalRandom random, Target target) {
+            return target.getDirect("/api/products");
+        }
+    },
+    /** Full catalog through the NDJSON stream, on the same route as LIST_ALL. */
+    LIST_STREAM {
+        @Override
+        HttpRequest next(ThreadLocalRandom random, Target target) {
+            return target.getDirect("/api/products/stream");
+        }
+    },
+    /** Mostly catalog reads with one order in five. */
+    MIXED {
+        @Override
+        HttpRequest next(ThreadLocalRandom random, Target target) {
+            return random.nextInt(5) == 0 ? ORDERS.next(random, target) : CATALOG.next(random, target);
+        }
+    };
+
+    abstract HttpRequest next(ThreadLocalRandom random, Target target);
+
+    /** Database rows one successful request inserts, or 0 if the scenario is not about writes. */
+    int rowsWritten(Target target) {
+        return 0;
+    }
+
+    record Target(URI gateway, URI productService, String token, int catalogSize, int orderItems) {
+
+        long randomProductId(ThreadLocalRandom random) {
+            return random.nextLong(1, catalogSize + 1L);
+        }
+
+        HttpRequest get(String path) {
+            return get(gateway, path);
+        }
+
+        HttpRequest getDirect(String path) {
+            return get(productService, path);
+        }
+
+        private HttpRequest get(URI base, String path) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+        }
+
+        HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(gateway.resolve(path))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+    }
+}
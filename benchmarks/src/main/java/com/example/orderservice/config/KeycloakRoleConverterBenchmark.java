@@ -0,0 +1,43 @@
+package com.example.orderservice.config;
+
+import com.example.benchmarks.RealmRoleTokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authority conversion in order-service. product-service carries
+ * the same converter; the gateway's is measured by its own benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeycloakRoleConverterBenchmark {
+
+    @Param({"2", "10"})
+    private int roleCount;
+
+    private KeycloakRoleConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        converter = new KeycloakRoleConverter();
+        jwt = RealmRoleTokens.withRoles(roleCount);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+}
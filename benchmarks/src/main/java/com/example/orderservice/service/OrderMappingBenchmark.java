@@ -0,0 +1,68 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link OrderService#mapToResponse(Order)} for orders of increasing size.
+ * Lives in the service package because the mapper is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int itemCount;
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        orderService = new OrderService(null, null, null, null, null);
+
+        order = new Order();
+        order.setId(1L);
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus(OrderStatus.PENDING);
+        order.setUserId("7f1c2c3e-benchmark-user");
+
+        List<OrderItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i);
+            item.setProductId((long) i + 1);
+            item.setProductName("Product " + (i + 1));
+            item.setQuantity(i % 5 + 1);
+            item.setPriceSnapshot(new BigDecimal("19.99"));
+            item.setOrder(order);
+            items.add(item);
+            total = total.add(item.getPriceSnapshot().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        order.setItems(items);
+        order.setTotalAmount(total);
+    }
+
+    @Benchmark
+    public OrderResponse mapToResponse() {
+        return orderService.mapToResponse(order);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.ProductChangesDTO;
+import com.example.orderservice.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded near-cache of product snapshots. Entries never outlive the TTL, and
+ * are dropped earlier when product-service's change feed reports a write.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductDTO> cache;
+    private final long syncIntervalNanos;
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile String epoch;
+    private volatile long version;
+    private volatile long lastSyncNanos;
+
+    public ProductCache(MeterRegistry meterRegistry,
+            @Value("${application.config.product-cache.max-size:10000}") long maxSize,
+            @Value("${application.config.product-cache.ttl:30s}") Duration ttl,
+            @Value("${application.config.product-cache.sync-interval:2s}") Duration syncInterval) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.lastSyncNanos = System.nanoTime() - syncIntervalNanos;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product-snapshots");
+    }
+
+    public Map<Long, ProductDTO> getAllPresent(Collection<Long> ids) {
+        return cache.getAllPresent(ids);
+    }
+
+    public void putAll(Collection<ProductDTO> products) {
+        products.forEach(product -> cache.put(product.id(), product));
+    }
+
+    public boolean isSyncDue() {
+        return System.nanoTime() - lastSyncNanos >= syncIntervalNanos;
+    }
+
+    /**
+     * Returns false when another thread is already syncing; callers then keep
+     * serving entries that are still within their TTL.
+     */
+    public boolean tryStartSync() {
+        return syncLock.tryLock();
+    }
+
+    public void finishSync() {
+        lastSyncNanos = System.nanoTime();
+        syncLock.unlock();
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public void applyChanges(ProductChangesDTO changes) {
+        if (!changes.complete() || !Objects.equals(epoch, changes.epoch())) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateAll(changes.productIds());
+        }
+        epoch = changes.epoch();
+        version = changes.version();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        epoch = null;
+    }
+}
@@ -1,42 +1,291 @@
 package com.example.orderservice.client;
 
+import com.example.orderservice.config.WebClientConfig;
+import com.example.orderservice.dto.ProductChangesDTO;
+import com.example.orderservice.dto.OrderItemRequest;
 import com.example.orderservice.dto.ProductDTO;
+import com.example.orderservice.dto.StockConfirmRequest;
+import com.example.orderservice.dto.StockReleaseRequest;
+import com.example.orderservice.dto.StockReservationRequest;
+import com.example.orderservice.dto.StockReservationResponse;
+import com.example.orderservice.exception.InsufficientStockException;
 import com.example.orderservice.exception.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
+@Slf4j
 public class ProductServiceClient {
 
     private final WebClient webClient;
-    private final String productServiceUrl;
+    private final ProductCache productCache;
+    private final int batchSize;
+    private final int concurrency;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Retry readRetry;
+    private final SingleFlight<Long, ProductDTO> productLookups;
 
     public ProductServiceClient(WebClient webClient,
-            @Value("${application.config.product-service-url}") String productServiceUrl) {
+            ProductCache productCache,
+            MeterRegistry meterRegistry,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            RetryRegistry retryRegistry,
+            @Value("${application.config.product-batch-size:100}") int batchSize,
+            @Value("${application.config.product-fetch-concurrency:4}") int concurrency) {
         this.webClient = webClient;
-        this.productServiceUrl = productServiceUrl;
+        this.productCache = productCache;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("product-service");
+        this.bulkhead = bulkheadRegistry.bulkhead("product-service");
+        this.readRetry = retryRegistry.retry("product-service-read");
+        // Concurrent orders for the same product share one upstream read; all callers may read any product
+        this.productLookups = new SingleFlight<>("product-client", meterRegistry);
     }
 
     public ProductDTO getProductById(Long id) {
+        ProductDTO product = timer("get").record(() -> productLookups.execute(id, () -> fetchProduct(id)));
+        // Null when the lookup joined a batch load that did not return this id
+        if (product == null) {
+            throw new ProductNotFoundException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    private ProductDTO fetchProduct(Long id) {
         try {
-            return webClient.get()
-                    .uri(productServiceUrl + "/" + id)
+            return read(webClient.get()
+                    .uri("/{id}", id)
                     .retrieve()
-                    .bodyToMono(ProductDTO.class)
+                    .bodyToMono(ProductDTO.class))
                     .block(); // Blocking for synchronous flow as requested
         } catch (WebClientResponseException e) {
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
                 throw new ProductNotFoundException("Product not found with id: " + id);
-            } else if (e.getStatusCode() == HttpStatus.FORBIDDEN || e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
-                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "inter-service auth failed");
             }
-            throw e;
+            throw upstreamFailure(e);
+        } catch (CallNotPermittedException | BulkheadFullException | WebClientRequestException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "product-service unavailable", e);
+        }
+    }
+
+    public Map<Long, ProductDTO> getProductsByIds(Collection<Long> ids) {
+        return timer("batch").record(() -> resolveProducts(ids));
+    }
+
+    private Map<Long, ProductDTO> resolveProducts(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        syncProductCache();
+
+        Map<Long, ProductDTO> productsById = new HashMap<>(productCache.getAllPresent(distinctIds));
+        List<Long> missingIds = distinctIds.stream()
+                .filter(id -> !productsById.containsKey(id))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            productsById.putAll(productLookups.executeAll(missingIds, this::fetchAndCacheProducts));
+        }
+
+        for (Long id : distinctIds) {
+            if (!productsById.containsKey(id)) {
+                throw new ProductNotFoundException("Product not found with id: " + id);
+            }
+        }
+        return productsById;
+    }
+
+    private Map<Long, ProductDTO> fetchAndCacheProducts(List<Long> ids) {
+        List<ProductDTO> fetched = fetchProducts(ids);
+        productCache.putAll(fetched);
+        return fetched.stream().collect(Collectors.toMap(ProductDTO::id, Function.identity()));
+    }
+
+    private List<ProductDTO> fetchProducts(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            chunks.add(ids.subList(i, Math.min(i + batchSize, ids.size())));
+        }
+
+        try {
+            // Large carts are split into chunks fetched concurrently; the caller's token travels in the Reactor context
+            return Flux.fromIterable(chunks)
+                    .flatMap(this::fetchBatch, concurrency)
+                    .collectList()
+                    .contextWrite(WebClientConfig.propagateAccessToken())
+                    .block();
+        } catch (WebClientResponseException e) {
+            throw upstreamFailure(e);
+        } catch (CallNotPermittedException | BulkheadFullException | WebClientRequestException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "product-service unavailable", e);
+        }
+    }
+
+    /**
+     * Reserves stock for all items or none and returns the id that confirms
+     * and releases it. Calls with the same key get the same reservation back.
+     */
+    public StockReservationResponse reserveStock(String reservationKey, List<OrderItemRequest> items) {
+        return timer("reserve").record(() -> {
+            try {
+                // Keyed, so a retry after a timeout returns the reservation the first attempt made
+                return read(webClient.post()
+                        .uri("/reserve")
+                        .bodyValue(new StockReservationRequest(reservationKey, items))
+                        .retrieve()
+                        .bodyToMono(StockReservationResponse.class))
+                        .block();
+            } catch (WebClientResponseException e) {
+                if (e.getStatusCode() == HttpStatus.CONFLICT) {
+                    throw new InsufficientStockException("Insufficient stock to reserve order items");
+                } else if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                    throw new ProductNotFoundException("Product not found among the order items");
+                }
+                throw upstreamFailure(e);
+            } catch (CallNotPermittedException | BulkheadFullException | WebClientRequestException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "product-service unavailable", e);
+            }
+        });
+    }
+
+    /** Tells product-service the reservation reached us, so it is not released as abandoned. */
+    public void confirmReservation(UUID reservationId) {
+        timer("confirm").record(() -> {
+            try {
+                // Confirming twice is harmless, so this is retried like a read
+                read(webClient.post()
+                        .uri("/confirm")
+                        .bodyValue(new StockConfirmRequest(reservationId))
+                        .retrieve()
+                        .toBodilessEntity())
+                        .block();
+            } catch (WebClientResponseException e) {
+                throw upstreamFailure(e);
+            } catch (CallNotPermittedException | BulkheadFullException | WebClientRequestException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "product-service unavailable", e);
+            }
+        });
+    }
+
+    public void releaseStock(UUID reservationId) {
+        timer("release").record(() -> {
+            try {
+                writeCall(webClient.post()
+                        .uri("/release")
+                        .bodyValue(new StockReleaseRequest(reservationId))
+                        .retrieve()
+                        .toBodilessEntity())
+                        .block();
+            } catch (WebClientResponseException e) {
+                throw upstreamFailure(e);
+            } catch (CallNotPermittedException | BulkheadFullException | WebClientRequestException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "product-service unavailable", e);
+            }
+        });
+    }
+
+    private void syncProductCache() {
+        if (!productCache.isSyncDue() || !productCache.tryStartSync()) {
+            return;
+        }
+        try {
+            ProductChangesDTO changes = timer("changes").record(() -> read(webClient.get()
+                    .uri("/changes?since={since}", productCache.version())
+                    .retrieve()
+                    .bodyToMono(ProductChangesDTO.class))
+                    .block());
+            productCache.applyChanges(changes);
         } catch (Exception e) {
-            throw new RuntimeException("Error calling product-service", e);
+            // Writes may have been missed while the feed was unreachable, so start from scratch
+            log.warn("Product change feed unavailable, clearing product cache: {}", e.getMessage());
+            productCache.invalidateAll();
+        } finally {
+            productCache.finishSync();
         }
     }
+
+    private Flux<ProductDTO> fetchBatch(List<Long> ids) {
+        return read(webClient.post()
+                .uri("/batch")
+                .bodyValue(ids)
+                .retrieve()
+                .bodyToFlux(ProductDTO.class));
+    }
+
+    /**
+     * Wraps an idempotent call (a read, or a write that is safe to repeat) in
+     * the bulkhead, circuit breaker and jittered retry. Retries resubscribe on
+     * another thread, so the caller's token is carried in the Reactor context.
+     */
+    private <T> Mono<T> read(Mono<T> call) {
+        return call.transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(readRetry))
+                .contextWrite(WebClientConfig.propagateAccessToken());
+    }
+
+    private <T> Mono<T> writeCall(Mono<T> call) {
+        return call.transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private <T> Flux<T> read(Flux<T> call) {
+        return call.transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(readRetry))
+                .contextWrite(WebClientConfig.propagateAccessToken());
+    }
+
+    /**
+     * Maps an error response not handled by the caller: server errors are
+     * reported as 503 like an open breaker, anything else as 502.
+     */
+    private static ResponseStatusException upstreamFailure(WebClientResponseException e) {
+        if (e.getStatusCode() == HttpStatus.FORBIDDEN || e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+            return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "inter-service auth failed");
+        } else if (e.getStatusCode().is5xxServerError()) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "product-service unavailable", e);
+        }
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                "product-service rejected the request with status " + e.getStatusCode().value(), e);
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("product.client.calls")
+                .description("Logical calls to product-service, including chunk fan-out and cache lookups")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
 }
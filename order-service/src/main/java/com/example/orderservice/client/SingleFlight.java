@@ -0,0 +1,141 @@
+package com.example.orderservice.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller (the leader)
+ * runs the load and callers arriving before it finishes wait for its result
+ * instead of loading again. The leader's result or failure is shared with
+ * every caller already waiting, so an outage costs one timeout rather than one
+ * per caller. Nothing is kept once the load completes: the next caller after a
+ * failure starts a fresh load, and caching is left to the caller.
+ */
+class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    SingleFlight(String name, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("singleflight.calls", leaders, LongAdder::sum)
+                .description("Keys loaded by the caller (leader) or taken from a load in flight (follower)")
+                .tags("name", name, "role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("singleflight.calls", followers, LongAdder::sum)
+                .tags("name", name, "role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of lookups served by another caller's load since startup")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("singleflight.in.flight", inFlight, Map::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            leaders.increment();
+            return lead(key, call, loader);
+        }
+        followers.increment();
+        return await(existing);
+    }
+
+    /**
+     * Batch form of {@link #execute}: keys already in flight are awaited, the
+     * rest are loaded with one call to {@code loader}. Keys the loader does not
+     * return are absent from the result; a single-key caller waiting on such a
+     * key gets {@code null}.
+     */
+    Map<K, V> executeAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, CompletableFuture<V>> claimed = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> joined = new HashMap<>();
+        for (K key : keys) {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null) {
+                claimed.put(key, call);
+            } else {
+                joined.put(key, existing);
+            }
+        }
+        leaders.add(claimed.size());
+
+        // Claimed keys are completed before waiting on others, so two batches can never wait on each other
+        Map<K, V> result = new HashMap<>();
+        if (!claimed.isEmpty()) {
+            Map<K, V> loaded;
+            try {
+                loaded = loader.apply(List.copyOf(claimed.keySet()));
+            } catch (RuntimeException | Error e) {
+                claimed.forEach(inFlight::remove);
+                claimed.values().forEach(call -> call.completeExceptionally(e));
+                throw e;
+            }
+            claimed.forEach(inFlight::remove);
+            claimed.forEach((key, call) -> call.complete(loaded.get(key)));
+            result.putAll(loaded);
+        }
+
+        followers.add(joined.size());
+        joined.forEach((key, call) -> {
+            V value = await(call);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    // Calls leave the map before completing, so a caller arriving after a failure starts a new load
+    private V lead(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, call);
+        call.complete(value);
+        return value;
+    }
+
+    private double coalescingRatio() {
+        long led = leaders.sum();
+        long followed = followers.sum();
+        return led + followed == 0 ? 0 : (double) followed / (led + followed);
+    }
+
+    /** Waits for a load in flight and rethrows the leader's failure as it was thrown. */
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            } else if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
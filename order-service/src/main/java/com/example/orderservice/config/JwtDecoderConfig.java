@@ -0,0 +1,73 @@
+package com.example.orderservice.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.DefaultJWKSetCache;
+import com.nimbusds.jose.jwk.source.RemoteJWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Configuration
+@Slf4j
+public class JwtDecoderConfig {
+
+    private final JWKSource<SecurityContext> jwkSource;
+
+    public JwtDecoderConfig(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${application.config.jwt-cache.jwk-set-ttl:5m}") Duration jwkSetTtl,
+            @Value("${application.config.jwt-cache.jwk-set-refresh-ahead:30s}") Duration refreshAhead)
+            throws MalformedURLException {
+        // Re-fetched on the first lookup inside the refresh-ahead window; the cached set is kept if that fails
+        long refreshTime = Math.max(0, jwkSetTtl.minus(refreshAhead).toMillis());
+        this.jwkSource = new RemoteJWKSet<>(URI.create(jwkSetUri).toURL(), null,
+                new DefaultJWKSetCache(jwkSetTtl.toMillis(), refreshTime, TimeUnit.MILLISECONDS));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${spring.security.oauth2.resourceserver.jwt.jws-algorithms:RS256}") List<String> jwsAlgorithms,
+            @Value("${application.config.jwt-cache.max-size:10000}") long maxSize) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(jwsAlgorithms.stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toUnmodifiableSet()), jwkSource));
+        // Claims are checked by the validators below
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new CachingJwtDecoder(decoder, maxSize, meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmJwkSet() {
+        try {
+            jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+        } catch (Exception e) {
+            log.warn("Could not pre-load the JWK set, it will be fetched on first request: {}", e.getMessage());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -12,37 +13,49 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Access log for a sample of requests. Latency is measured by the
+ * http.server.requests metric, so this only runs for the sampled fraction.
+ * Trace and span ids come from the logging pattern.
+ */
 @Component
 @Slf4j
 public class LoggingFilter extends OncePerRequestFilter {
 
+    private final double sampleRate;
+
+    public LoggingFilter(@Value("${application.config.request-log-sample-rate:0.0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        long startTime = System.currentTimeMillis();
-
-        String username = "anonymous";
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
-            Jwt jwt = (Jwt) authentication.getPrincipal();
-            username = jwt.getClaimAsString("preferred_username");
-            if (username == null) {
-                username = jwt.getSubject();
-            }
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
         }
 
-        String traceId = request.getHeader("X-Trace-Id");
-
-        log.info("Incoming Request: traceId={} method={} path={} user={}", traceId, request.getMethod(),
-                request.getRequestURI(), username);
-
+        long startTime = System.nanoTime();
         try {
             filterChain.doFilter(request, response);
         } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            log.info("Request Competed: traceId={} method={} path={} status={} duration={}ms user={}",
-                    traceId, request.getMethod(), request.getRequestURI(), response.getStatus(), duration, username);
+            long duration = (System.nanoTime() - startTime) / 1_000_000;
+            log.info("Request Completed: method={} path={} status={} duration={}ms user={}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), duration,
+                    currentUsername());
+        }
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
+            Jwt jwt = (Jwt) authentication.getPrincipal();
+            String username = jwt.getClaimAsString("preferred_username");
+            return username != null ? username : jwt.getSubject();
         }
+        return "anonymous";
     }
 }
@@ -1,5 +1,7 @@
 package com.example.orderservice.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -14,6 +16,7 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.web.SecurityFilterChain;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -27,6 +30,8 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/orders/events", "/api/orders/events/**").hasRole("ADMIN")
+                        .requestMatchers("/api/orders/stats/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/orders").hasAnyRole("CLIENT", "ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/orders/my").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/orders").hasRole("ADMIN")
@@ -47,16 +52,23 @@ public class SecurityConfig {
 }
 
 class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    // Keyed by role list; users share a few combinations
+    private final Cache<List<String>, List<GrantedAuthority>> authorities = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .build();
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
         Map<String, Object> realmAccess = jwt.getClaim("realm_access");
         if (realmAccess == null || realmAccess.isEmpty()) {
-            return java.util.List.of();
+            return List.of();
         }
 
-        return ((Collection<String>) realmAccess.get("roles")).stream()
+        List<String> roles = List.copyOf((Collection<String>) realmAccess.get("roles"));
+        return authorities.get(roles, key -> key.stream()
                 .map(roleName -> "ROLE_" + roleName)
                 .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList()));
     }
 }
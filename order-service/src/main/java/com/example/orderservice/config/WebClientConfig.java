@@ -1,38 +1,93 @@
 package com.example.orderservice.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.function.Function;
 
 @Configuration
 public class WebClientConfig {
 
+    private static final String ACCESS_TOKEN_KEY = WebClientConfig.class.getName() + ".ACCESS_TOKEN";
+
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
+    public ConnectionProvider productServiceConnectionProvider(
+            @Value("${application.config.product-client.max-connections:100}") int maxConnections,
+            @Value("${application.config.product-client.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${application.config.product-client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${application.config.product-client.max-life-time:5m}") Duration maxLifeTime) {
+        // Idle connections are closed before product-service's keep-alive timeout so a reused one is never stale
+        return ConnectionProvider.builder("product-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConnections * 4)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient webClient(WebClient.Builder builder, ConnectionProvider productServiceConnectionProvider,
+            @Value("${application.config.product-service-url}") String productServiceUrl,
+            @Value("${application.config.product-client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${application.config.product-client.read-timeout:5s}") Duration readTimeout,
+            @Value("${application.config.product-client.h2c:false}") boolean h2c) {
+        HttpClient httpClient = HttpClient.create(productServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .keepAlive(true)
+                .responseTimeout(readTimeout)
+                .metrics(true, uri -> "product-service");
+        if (h2c) {
+            // Cleartext HTTP/2 with prior knowledge: all calls multiplex over a few connections
+            httpClient = httpClient.protocol(HttpProtocol.H2C);
+        }
         return builder
+                .baseUrl(productServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .filter(jwtInterceptor())
                 .build();
     }
 
+    /**
+     * Captures the caller's bearer token so requests subscribed on other threads
+     * (concurrent fan-out, retries) still forward it.
+     */
+    public static Function<Context, Context> propagateAccessToken() {
+        String token = getToken();
+        return context -> token != null ? context.put(ACCESS_TOKEN_KEY, token) : context;
+    }
+
     private ExchangeFilterFunction jwtInterceptor() {
-        return ExchangeFilterFunction.ofRequestProcessor(clientRequest -> {
-            String token = getToken();
+        return ExchangeFilterFunction.ofRequestProcessor(clientRequest -> Mono.deferContextual(context -> {
+            String token = context.<String>getOrEmpty(ACCESS_TOKEN_KEY).orElseGet(WebClientConfig::getToken);
             if (token != null) {
                 ClientRequest newRequest = ClientRequest.from(clientRequest)
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                         .build();
-                return reactor.core.publisher.Mono.just(newRequest);
+                return Mono.just(newRequest);
             }
-            return reactor.core.publisher.Mono.just(clientRequest);
-        });
+            return Mono.just(clientRequest);
+        }));
     }
 
-    private String getToken() {
+    private static String getToken() {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
             Jwt jwt = (Jwt) authentication.getPrincipal();
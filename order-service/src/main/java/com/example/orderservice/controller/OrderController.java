@@ -1,13 +1,24 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.dto.OrderHistoryDocument;
+import com.example.orderservice.dto.OrderHistoryPageResponse;
+import com.example.orderservice.dto.OrderPageResponse;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.service.IdempotencyStore;
+import com.example.orderservice.service.OrderPipeline;
 import com.example.orderservice.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -15,21 +26,72 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderPipeline orderPipeline;
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public OrderResponse createOrder(@Valid @RequestBody OrderRequest request) {
-        return orderService.createOrder(request);
+    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal Jwt jwt) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(request, null));
+        }
+        IdempotencyStore.Outcome outcome = idempotencyStore.execute(jwt.getSubject(), IdempotencyStore.Mode.SYNC,
+                idempotencyKey, request, () -> orderService.createOrder(request, idempotencyKey));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
+    }
+
+    @PostMapping(params = "async=true")
+    public ResponseEntity<OrderResponse> placeOrder(@Valid @RequestBody OrderRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal Jwt jwt) {
+        if (idempotencyKey == null) {
+            OrderResponse order = orderPipeline.accept(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + order.id()))
+                    .body(order);
+        }
+        IdempotencyStore.Outcome outcome = idempotencyStore.execute(jwt.getSubject(), IdempotencyStore.Mode.ASYNC,
+                idempotencyKey, request, () -> orderPipeline.accept(request));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/" + outcome.response().id()))
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
+    }
+
+    @GetMapping("/{id}")
+    public OrderResponse getOrder(@PathVariable Long id) {
+        return orderService.getOrder(id);
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getOrderEvents(@PathVariable Long id) {
+        return orderPipeline.subscribe(id);
     }
 
     @GetMapping("/my")
-    public List<OrderResponse> getMyOrders() {
+    public List<OrderHistoryDocument> getMyOrders() {
         return orderService.getUserOrders();
     }
 
+    @GetMapping(value = "/my", params = "page")
+    public OrderHistoryPageResponse getMyOrders(@RequestParam int page, @RequestParam(defaultValue = "20") int size) {
+        return orderService.getUserOrders(page, size);
+    }
+
     @GetMapping
     public List<OrderResponse> getAllOrders() {
         return orderService.getAllOrders();
     }
+
+    @GetMapping(params = "page")
+    public OrderPageResponse getAllOrders(@RequestParam int page, @RequestParam(defaultValue = "20") int size) {
+        return orderService.getAllOrders(page, size);
+    }
 }
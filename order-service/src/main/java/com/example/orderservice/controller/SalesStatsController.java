@@ -0,0 +1,32 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.dto.ProductSalesResponse;
+import com.example.orderservice.service.SalesStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders/stats")
+@RequiredArgsConstructor
+public class SalesStatsController {
+
+    private final SalesStatsService salesStatsService;
+
+    @GetMapping("/revenue")
+    public List<DailyRevenue> getRevenueByDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        return salesStatsService.getRevenueByDay(from != null ? from : end.minusDays(29), end);
+    }
+
+    @GetMapping("/top-products")
+    public List<ProductSalesResponse> getTopProducts(@RequestParam(defaultValue = "10") int limit) {
+        return salesStatsService.getTopProducts(limit);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.orderservice.dto;
+
+public record ChangeEventRecord(
+        long offset,
+        ChangeEvent event) {
+}
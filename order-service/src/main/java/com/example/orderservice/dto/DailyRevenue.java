@@ -0,0 +1,10 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyRevenue(
+        LocalDate day,
+        long orderCount,
+        BigDecimal revenue) {
+}
@@ -0,0 +1,11 @@
+package com.example.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * One order from the order history, written out as the stored
+ * {@link OrderResponse} JSON without being parsed again.
+ */
+public record OrderHistoryDocument(@JsonValue @JsonRawValue String document) {
+}
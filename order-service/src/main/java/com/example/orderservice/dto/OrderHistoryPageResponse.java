@@ -0,0 +1,14 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+/**
+ * Same shape as {@link OrderPageResponse}, with the items written straight
+ * from the stored order history documents.
+ */
+public record OrderHistoryPageResponse(
+        List<OrderHistoryDocument> items,
+        int page,
+        int size,
+        boolean hasNext) {
+}
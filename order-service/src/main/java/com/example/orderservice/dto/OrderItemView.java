@@ -0,0 +1,11 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public record OrderItemView(
+        Long orderId,
+        Long productId,
+        String productName,
+        Integer quantity,
+        BigDecimal priceSnapshot) {
+}
@@ -0,0 +1,10 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+public record OrderPageResponse(
+        List<OrderResponse> items,
+        int page,
+        int size,
+        boolean hasNext) {
+}
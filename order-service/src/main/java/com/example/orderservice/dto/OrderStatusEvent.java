@@ -0,0 +1,8 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.entity.OrderStatus;
+
+public record OrderStatusEvent(
+        Long orderId,
+        OrderStatus status) {
+}
@@ -0,0 +1,13 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.entity.OrderStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderSummaryView(
+        Long id,
+        LocalDateTime orderDate,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        String userId) {
+}
@@ -0,0 +1,10 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+public record ProductChangesDTO(
+        String epoch,
+        long version,
+        boolean complete,
+        List<Long> productIds) {
+}
@@ -0,0 +1,10 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public record ProductSalesResponse(
+        Long productId,
+        String productName,
+        long quantitySold,
+        BigDecimal revenue) {
+}
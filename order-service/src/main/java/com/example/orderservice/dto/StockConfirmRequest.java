@@ -0,0 +1,7 @@
+package com.example.orderservice.dto;
+
+import java.util.UUID;
+
+public record StockConfirmRequest(
+        UUID reservationId) {
+}
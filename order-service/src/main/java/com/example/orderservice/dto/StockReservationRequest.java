@@ -0,0 +1,8 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+public record StockReservationRequest(
+        String reservationKey,
+        List<OrderItemRequest> items) {
+}
@@ -0,0 +1,8 @@
+package com.example.orderservice.dto;
+
+import java.util.UUID;
+
+public record StockReservationResponse(
+        UUID reservationId,
+        boolean confirmed) {
+}
@@ -0,0 +1,26 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_history")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderHistoryEntry {
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private String userId;
+
+    private LocalDateTime orderDate;
+
+    // Serialized OrderResponse
+    @Column(nullable = false, columnDefinition = "text")
+    private String document;
+}
@@ -0,0 +1,25 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "product_sales")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSales {
+    @Id
+    private Long productId;
+
+    private String productName;
+
+    @Column(nullable = false)
+    private Long quantitySold;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+}
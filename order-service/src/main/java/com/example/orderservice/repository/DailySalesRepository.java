@@ -0,0 +1,13 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.DailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate> {
+    List<DailySales> findByDayBetweenOrderByDayAsc(LocalDate from, LocalDate to);
+}
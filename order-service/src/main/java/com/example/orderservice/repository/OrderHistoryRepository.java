@@ -0,0 +1,30 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.OrderHistoryEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderHistoryRepository extends JpaRepository<OrderHistoryEntry, Long> {
+    @Modifying
+    @Query(value = "insert into order_history (order_id, user_id, order_date, document) "
+            + "values (:orderId, :userId, :orderDate, :document) "
+            + "on conflict (order_id) do update set order_date = excluded.order_date, document = excluded.document",
+            nativeQuery = true)
+    void upsert(@Param("orderId") Long orderId, @Param("userId") String userId,
+            @Param("orderDate") LocalDateTime orderDate, @Param("document") String document);
+
+    @Query("select h.document from OrderHistoryEntry h where h.userId = :userId order by h.orderDate desc, h.orderId desc")
+    List<String> findDocumentsByUserId(@Param("userId") String userId);
+
+    @Query("select h.document from OrderHistoryEntry h where h.userId = :userId order by h.orderDate desc, h.orderId desc")
+    Slice<String> findDocumentsByUserId(@Param("userId") String userId, Pageable pageable);
+}
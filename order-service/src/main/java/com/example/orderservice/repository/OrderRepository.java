@@ -1,12 +1,55 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.OrderItemView;
+import com.example.orderservice.dto.OrderSummaryView;
 import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserId(String userId);
+    @EntityGraph(attributePaths = "items")
+    @Query("select o from Order o")
+    List<Order> findAllWithItems();
+
+    @EntityGraph(attributePaths = "items")
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findForUpdateById(@Param("id") Long id);
+
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Order o set o.status = :to where o.id = :id and o.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    @Query("select o.id from Order o where o.status = :status and o.orderDate < :cutoff")
+    List<Long> findIdsByStatusBefore(@Param("status") OrderStatus status, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("select new com.example.orderservice.dto.OrderSummaryView(o.id, o.orderDate, o.status, o.totalAmount, o.userId) "
+            + "from Order o order by o.orderDate desc, o.id desc")
+    Slice<OrderSummaryView> findSummaries(Pageable pageable);
+
+    @Query("select new com.example.orderservice.dto.OrderItemView("
+            + "i.order.id, i.productId, i.productName, i.quantity, i.priceSnapshot) "
+            + "from OrderItem i where i.order.id in :orderIds")
+    List<OrderItemView> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
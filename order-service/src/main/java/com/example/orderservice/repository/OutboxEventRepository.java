@@ -0,0 +1,28 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Skipping locked rows lets several relays drain the outbox without blocking on each other
+    @Query(value = "select * from outbox_events where published_at is null order by id limit :limit "
+            + "for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockUnpublished(@Param("limit") int limit);
+
+    @Query(value = "select * from outbox_events where published_at is not null and id > :after order by id "
+            + "limit :limit", nativeQuery = true)
+    List<OutboxEvent> findPublishedAfter(@Param("after") long after, @Param("limit") int limit);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,46 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.ProductSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSalesRepository extends JpaRepository<ProductSales, Long> {
+    List<ProductSales> findAllByOrderByQuantitySoldDescProductIdAsc(Pageable pageable);
+
+    /**
+     * Marks up to {@code limit} unrecorded confirmed orders as recorded and adds
+     * them to the daily and per-product aggregates, all in one statement.
+     * Returns how many orders were folded in.
+     */
+    @Query(value = """
+            with batch as (
+                update orders set sales_recorded = true
+                where id in (select id from orders where status = 'CONFIRMED' and not sales_recorded
+                             order by id limit :limit for update skip locked)
+                returning id, order_date, total_amount
+            ), daily as (
+                insert into daily_sales (day, order_count, revenue)
+                select cast(order_date as date), count(*), coalesce(sum(total_amount), 0) from batch
+                group by cast(order_date as date)
+                on conflict (day) do update set order_count = daily_sales.order_count + excluded.order_count,
+                                                revenue = daily_sales.revenue + excluded.revenue
+            ), products as (
+                insert into product_sales (product_id, product_name, quantity_sold, revenue)
+                select i.product_id, max(i.product_name), sum(i.quantity), coalesce(sum(i.price_snapshot * i.quantity), 0)
+                from order_items i join batch b on i.order_id = b.id
+                group by i.product_id
+                on conflict (product_id) do update set
+                    product_name = coalesce(excluded.product_name, product_sales.product_name),
+                    quantity_sold = product_sales.quantity_sold + excluded.quantity_sold,
+                    revenue = product_sales.revenue + excluded.revenue
+            )
+            select count(*) from batch
+            """, nativeQuery = true)
+    long rollUpConfirmedOrders(@Param("limit") int limit);
+}
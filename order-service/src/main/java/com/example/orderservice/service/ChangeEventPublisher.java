@@ -0,0 +1,17 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.ChangeEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the outbox relay. Delivery is at-least-once: a batch may be
+ * published again if marking it as sent fails, and on startup the relay
+ * publishes again the rows still retained in the outbox, so consumers should
+ * dedupe on {@link ChangeEvent#eventId()}. Events deleted from the outbox
+ * (after {@code outbox.retention}) are not redelivered after a restart.
+ */
+public interface ChangeEventPublisher {
+
+    void publish(List<ChangeEvent> events);
+}
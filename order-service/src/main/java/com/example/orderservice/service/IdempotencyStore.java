@@ -0,0 +1,129 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers order results by user and Idempotency-Key for a bounded time, so
+ * a client retry gets the original order back instead of placing a new one.
+ * A duplicate that arrives while the first request is still running waits for
+ * its result rather than running the order again (a join, reported as a replay
+ * to the client but counted separately). Keys are scoped by mode, so the same
+ * key sent to the synchronous and the async endpoint names two orders, each
+ * replayed with its own response shape. Entries are per instance.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Execution> executions;
+    private final MeterRegistry meterRegistry;
+    private final Duration waitTimeout;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+            @Value("${application.config.idempotency.max-size:10000}") long maxSize,
+            @Value("${application.config.idempotency.ttl:1h}") Duration ttl,
+            @Value("${application.config.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.waitTimeout = waitTimeout;
+        CaffeineCacheMetrics.monitor(meterRegistry, executions, "idempotency-keys");
+    }
+
+    public Outcome execute(String userId, Mode mode, String key, Object request, Supplier<OrderResponse> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = userId + ":" + mode.name().toLowerCase() + ":" + key;
+        Execution execution = new Execution(request, new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(cacheKey, execution);
+        if (existing == null) {
+            return new Outcome(run(cacheKey, execution, action), Kind.EXECUTED);
+        }
+        if (!existing.request().equals(request)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different order");
+        }
+        Kind kind = existing.response().isDone() ? Kind.REPLAYED : Kind.JOINED;
+        count(kind);
+        return new Outcome(await(existing), kind);
+    }
+
+    private OrderResponse run(String cacheKey, Execution execution, Supplier<OrderResponse> action) {
+        try {
+            OrderResponse response = action.get();
+            execution.response().complete(response);
+            count(Kind.EXECUTED);
+            return response;
+        } catch (RuntimeException e) {
+            // Failures are not remembered, so the client may retry with the same key
+            executions.asMap().remove(cacheKey, execution);
+            execution.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private OrderResponse await(Execution execution) {
+        try {
+            return execution.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for order");
+        }
+    }
+
+    private void count(Kind kind) {
+        meterRegistry.counter("orders.idempotency.requests", "outcome", kind.name().toLowerCase()).increment();
+    }
+
+    public enum Mode {
+        SYNC, ASYNC
+    }
+
+    public enum Kind {
+        EXECUTED, REPLAYED, JOINED
+    }
+
+    public record Outcome(OrderResponse response, Kind kind) {
+
+        /**
+         * Whether the order was placed by another request with the same key,
+         * either already finished or still running when this one arrived.
+         */
+        public boolean replayed() {
+            return kind != Kind.EXECUTED;
+        }
+    }
+
+    private record Execution(Object request, CompletableFuture<OrderResponse> response) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderHistoryDocument;
+import com.example.orderservice.dto.OrderHistoryPageResponse;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.repository.OrderHistoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Read model behind the per-user order history. Every order write stores the
+ * order's serialized {@link OrderResponse} in the same transaction, so history
+ * reads are one indexed lookup that returns the stored JSON as is, with no
+ * joins, mapping or product-service calls.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderHistory {
+
+    private final OrderHistoryRepository orderHistoryRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void project(OrderResponse order) {
+        orderHistoryRepository.upsert(order.id(), order.userId(), order.orderDate(), toJson(order));
+    }
+
+    /** All of a user's orders, newest first. */
+    @Transactional(readOnly = true)
+    public List<OrderHistoryDocument> findByUserId(String userId) {
+        return orderHistoryRepository.findDocumentsByUserId(userId).stream()
+                .map(OrderHistoryDocument::new)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public OrderHistoryPageResponse findByUserId(String userId, Pageable pageable) {
+        Slice<String> documents = orderHistoryRepository.findDocumentsByUserId(userId, pageable);
+        return new OrderHistoryPageResponse(documents.map(OrderHistoryDocument::new).getContent(),
+                documents.getNumber(), documents.getSize(), documents.hasNext());
+    }
+
+    private String toJson(OrderResponse order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order " + order.id(), e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderStatusEvent;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.exception.InsufficientStockException;
+import com.example.orderservice.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order placement: orders are stored as PENDING and a bounded
+ * pool of workers prices and reserves them, moving them to CONFIRMED or
+ * FAILED. Workers run with the caller's security context so product-service
+ * calls forward the caller's token. Only a rejection by product-service fails
+ * an order; while it is unavailable the order stays PENDING and is retried
+ * with backoff until the pending timeout, after which the sweeper fails it.
+ */
+@Component
+@Slf4j
+public class OrderPipeline {
+
+    private final OrderService orderService;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retries;
+    private final Semaphore capacity;
+    private final Duration pendingTimeout;
+    private final Duration sseTimeout;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public OrderPipeline(OrderService orderService,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.order-pipeline.workers:8}") int workers,
+            @Value("${application.config.order-pipeline.queue-capacity:1000}") int queueCapacity,
+            @Value("${application.config.order-pipeline.pending-timeout:5m}") Duration pendingTimeout,
+            @Value("${application.config.order-pipeline.sse-timeout:60s}") Duration sseTimeout,
+            @Value("${application.config.order-pipeline.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${application.config.order-pipeline.max-retry-backoff:30s}") Duration maxRetryBackoff) {
+        this.orderService = orderService;
+        this.meterRegistry = meterRegistry;
+        this.workers = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("order-worker-", 0).factory());
+        this.retries = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("order-retry").daemon().factory());
+        // Admission is bounded here rather than by the queue, so accepted orders are never rejected by the pool
+        int maxInFlight = workers + queueCapacity;
+        this.capacity = new Semaphore(maxInFlight);
+        this.pendingTimeout = pendingTimeout;
+        this.sseTimeout = sseTimeout;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+
+        Gauge.builder("orders.pipeline.in.flight", capacity, permits -> maxInFlight - permits.availablePermits())
+                .description("Orders accepted and not yet confirmed or failed")
+                .register(meterRegistry);
+    }
+
+    public OrderResponse accept(OrderRequest request) {
+        if (!capacity.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending orders, retry later");
+        }
+        try {
+            OrderResponse order = orderService.createPendingOrder(request);
+            submit(new Job(order.id(), SecurityContextHolder.getContext(), Instant.now().plus(pendingTimeout), 0));
+            return order;
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    public SseEmitter subscribe(Long orderId) {
+        OrderResponse order = orderService.getOrder(orderId);
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        if (order.status() != OrderStatus.PENDING) {
+            send(emitter, new OrderStatusEvent(orderId, order.status()));
+            return emitter;
+        }
+
+        // Sent before registering so it always precedes the final status
+        sendPending(emitter, orderId);
+        subscribers.compute(orderId, (id, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> unsubscribe(orderId, emitter));
+        emitter.onTimeout(() -> unsubscribe(orderId, emitter));
+
+        // The order may have settled before the emitter was registered
+        OrderStatus status = orderService.getOrderStatus(orderId);
+        if (status != OrderStatus.PENDING && unsubscribe(orderId, emitter)) {
+            send(emitter, new OrderStatusEvent(orderId, status));
+        }
+        return emitter;
+    }
+
+    /**
+     * Fails orders stuck in PENDING, e.g. accepted by an instance that stopped
+     * before confirming them. Their callers' tokens are gone, so they cannot be
+     * retried.
+     */
+    @Scheduled(fixedDelayString = "${application.config.order-pipeline.sweep-interval-ms:60000}")
+    public void failStalePendingOrders() {
+        int failed = orderService.failPendingOrdersBefore(LocalDateTime.now().minus(pendingTimeout));
+        if (failed > 0) {
+            log.warn("Failed {} orders pending for more than {}", failed, pendingTimeout);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Orders waiting for a retry stay PENDING and are failed by the sweeper
+        retries.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void submit(Job job) {
+        workers.execute(new DelegatingSecurityContextRunnable(() -> process(job), job.securityContext()));
+    }
+
+    private void process(Job job) {
+        Long orderId = job.orderId();
+        boolean retrying = false;
+        try {
+            OrderStatus status = confirmOrFail(orderId);
+            meterRegistry.counter("orders.pipeline.completed", "status", status.name()).increment();
+
+            List<SseEmitter> emitters = subscribers.remove(orderId);
+            if (emitters != null) {
+                emitters.forEach(emitter -> send(emitter, new OrderStatusEvent(orderId, status)));
+            }
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                retrying = retry(job, e);
+            } else {
+                // Left PENDING; failStalePendingOrders picks it up after the pending timeout
+                log.error("Could not settle order {}", orderId, e);
+            }
+        } finally {
+            if (!retrying) {
+                capacity.release();
+            }
+        }
+    }
+
+    private OrderStatus confirmOrFail(Long orderId) {
+        try {
+            return orderService.confirmOrder(orderId);
+        } catch (RuntimeException e) {
+            if (!isRejection(e)) {
+                throw e;
+            }
+            log.info("Order {} failed: {}", orderId, e.getMessage());
+            return orderService.failOrder(orderId);
+        }
+    }
+
+    private boolean retry(Job job, RuntimeException cause) {
+        long backoff = Math.min(retryBackoff.toMillis() << Math.min(job.attempt(), 20), maxRetryBackoff.toMillis());
+        if (Instant.now().plusMillis(backoff).isAfter(job.deadline())) {
+            log.warn("Giving up on order {} after {} attempts, leaving it to the sweeper: {}",
+                    job.orderId(), job.attempt() + 1, cause.getMessage());
+            return false;
+        }
+        log.info("Order {} not settled, retrying in {} ms: {}", job.orderId(), backoff, cause.getMessage());
+        meterRegistry.counter("orders.pipeline.retries").increment();
+        try {
+            retries.schedule(() -> submit(job.next()), backoff, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            return false;
+        }
+    }
+
+    /** product-service refused the order: unknown product, not enough stock, or an invalid request. */
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof InsufficientStockException
+                || e instanceof ProductNotFoundException
+                || e instanceof ResponseStatusException status && status.getStatusCode().is4xxClientError()
+                || e.getCause() instanceof WebClientResponseException upstream
+                        && upstream.getStatusCode().is4xxClientError();
+    }
+
+    /** product-service or the database is unavailable, slow, or shedding load; a later attempt may succeed. */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof ResponseStatusException status && status.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE
+                || e instanceof TransientDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private boolean unsubscribe(Long orderId, SseEmitter emitter) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(orderId, (id, emitters) -> {
+            removed[0] = emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+        return removed[0];
+    }
+
+    private void sendPending(SseEmitter emitter, Long orderId) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(new OrderStatusEvent(orderId, OrderStatus.PENDING)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void send(SseEmitter emitter, OrderStatusEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(event));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            emitter.completeWithError(e);
+        }
+    }
+
+    private record Job(Long orderId, SecurityContext securityContext, Instant deadline, int attempt) {
+
+        Job next() {
+            return new Job(orderId, securityContext, deadline, attempt + 1);
+        }
+    }
+}
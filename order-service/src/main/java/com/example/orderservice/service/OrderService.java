@@ -6,76 +6,174 @@ import com.example.orderservice.entity.Order;
 import com.example.orderservice.entity.OrderItem;
 import com.example.orderservice.entity.OrderStatus;
 import com.example.orderservice.exception.InsufficientStockException;
+import com.example.orderservice.exception.OrderNotFoundException;
+import com.example.orderservice.exception.ProductNotFoundException;
 import com.example.orderservice.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OrderService {
 
+    private static final String AGGREGATE_TYPE = "order";
+
     private final OrderRepository orderRepository;
     private final ProductServiceClient productServiceClient;
+    private final ChangeEventOutbox changeEventOutbox;
+    private final OrderHistory orderHistory;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public OrderResponse createOrder(OrderRequest request) {
-        String userId = getCurrentUserId();
-        Order order = new Order();
-        order.setUserId(userId);
-        order.setOrderDate(LocalDateTime.now());
-        order.setStatus(OrderStatus.PENDING);
+    @Value("${application.config.max-page-size:100}")
+    private int maxPageSize;
 
-        List<OrderItem> items = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (OrderItemRequest itemRequest : request.items()) {
-            ProductDTO product = productServiceClient.getProductById(itemRequest.productId());
+    /**
+     * Prices and reserves the items, then stores the order as CONFIRMED. As in
+     * {@link #confirmOrder}, the product-service calls run before the
+     * transaction opens, and the reservation is released if the save fails.
+     * With an Idempotency-Key the reservation is keyed by it, so a retry of
+     * the request gets the first attempt's reservation back; if that one was
+     * already confirmed, the order was placed and the retry is rejected.
+     */
+    public OrderResponse createOrder(OrderRequest request, String idempotencyKey) {
+        Order order = newOrder(getCurrentUserId(), request.items());
+        StockReservationResponse reservation = productServiceClient.reserveStock(
+                reservationKey(request, idempotencyKey), price(order));
+        if (reservation.confirmed()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "An order was already placed with this Idempotency-Key");
+        }
+        UUID reservationId = reservation.reservationId();
+        order.setStatus(OrderStatus.CONFIRMED);
 
-            if (product.stockQuantity() < itemRequest.quantity()) {
-                throw new InsufficientStockException("Insufficient stock for product: " + product.name());
-            }
+        try {
+            productServiceClient.confirmReservation(reservationId);
+            return transactionTemplate.execute(status -> {
+                OrderResponse response = mapToResponse(orderRepository.save(order));
+                recordChange("OrderCreated", response);
+                return response;
+            });
+        } catch (RuntimeException e) {
+            releaseStock(reservationId);
+            throw e;
+        }
+    }
 
-            OrderItem item = new OrderItem();
-            item.setProductId(product.id());
-            item.setQuantity(itemRequest.quantity());
-            item.setPriceSnapshot(product.price());
-            item.setOrder(order);
+    /**
+     * Stores the order unpriced as PENDING; {@link OrderPipeline} confirms it
+     * once product-service has priced and reserved the items.
+     */
+    @Transactional
+    public OrderResponse createPendingOrder(OrderRequest request) {
+        Order order = newOrder(getCurrentUserId(), request.items());
+        order.setStatus(OrderStatus.PENDING);
+        OrderResponse response = mapToResponse(orderRepository.save(order));
+        recordChange("OrderAccepted", response);
+        return response;
+    }
 
-            items.add(item);
+    /**
+     * Prices and reserves a PENDING order, then confirms it. The product-service
+     * calls run outside any transaction; only the final PENDING to CONFIRMED
+     * step locks the row. If the order was settled meanwhile (e.g. failed by the
+     * sweeper), the reservation is released and the current status returned.
+     */
+    public OrderStatus confirmOrder(Long orderId) {
+        Order order = orderRepository.findWithItemsById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId));
+        if (order.getStatus() != OrderStatus.PENDING) {
+            return order.getStatus();
+        }
+        // Keyed by order, so a retry of this order gets its existing reservation back
+        UUID reservationId = productServiceClient.reserveStock("order:" + orderId, price(order)).reservationId();
 
-            BigDecimal itemTotal = product.price().multiply(BigDecimal.valueOf(itemRequest.quantity()));
-            totalAmount = totalAmount.add(itemTotal);
+        boolean confirmed;
+        try {
+            productServiceClient.confirmReservation(reservationId);
+            confirmed = Boolean.TRUE.equals(transactionTemplate.execute(status -> markConfirmed(order)));
+        } catch (RuntimeException e) {
+            releaseStock(reservationId);
+            throw e;
+        }
+        if (!confirmed) {
+            releaseStock(reservationId);
+            return getOrderStatus(orderId);
         }
+        return OrderStatus.CONFIRMED;
+    }
 
-        order.setItems(items);
-        order.setTotalAmount(totalAmount);
+    @Transactional
+    public OrderStatus failOrder(Long orderId) {
+        return markFailed(orderId) ? OrderStatus.FAILED : getOrderStatus(orderId);
+    }
 
-        Order savedOrder = orderRepository.save(order);
-        return mapToResponse(savedOrder);
+    @Transactional
+    public int failPendingOrdersBefore(LocalDateTime cutoff) {
+        int failed = 0;
+        for (Long orderId : orderRepository.findIdsByStatusBefore(OrderStatus.PENDING, cutoff)) {
+            if (markFailed(orderId)) {
+                failed++;
+            }
+        }
+        return failed;
     }
 
-    public List<OrderResponse> getUserOrders() {
-        String userId = getCurrentUserId();
-        return orderRepository.findByUserId(userId).stream()
+    @Transactional(readOnly = true)
+    public OrderResponse getOrder(Long orderId) {
+        return orderRepository.findWithItemsById(orderId)
+                .filter(order -> isAdmin() || order.getUserId().equals(getCurrentUserId()))
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderStatus getOrderStatus(Long orderId) {
+        return orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId));
+    }
+
+    /** The caller's orders, newest first, read from the order history. */
+    public List<OrderHistoryDocument> getUserOrders() {
+        return orderHistory.findByUserId(getCurrentUserId());
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAll().stream()
+        return orderRepository.findAllWithItems().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    public OrderHistoryPageResponse getUserOrders(int page, int size) {
+        return orderHistory.findByUserId(getCurrentUserId(), pageRequest(page, size));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPageResponse getAllOrders(int page, int size) {
+        return toPageResponse(orderRepository.findSummaries(pageRequest(page, size)));
+    }
+
     private String getCurrentUserId() {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
@@ -85,14 +183,140 @@ public class OrderService {
         throw new RuntimeException("User not authenticated");
     }
 
-    private OrderResponse mapToResponse(Order order) {
+    private boolean markFailed(Long orderId) {
+        if (orderRepository.updateStatus(orderId, OrderStatus.PENDING, OrderStatus.FAILED) == 0) {
+            return false;
+        }
+        changeEventOutbox.append(AGGREGATE_TYPE, orderId, "OrderFailed", new OrderStatusEvent(orderId, OrderStatus.FAILED));
+        // The bulk update bypassed the persistence context, so this load sees the FAILED status
+        orderRepository.findWithItemsById(orderId).map(this::mapToResponse).ifPresent(orderHistory::project);
+        return true;
+    }
+
+    private boolean markConfirmed(Order priced) {
+        Order order = orderRepository.findForUpdateById(priced.getId())
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + priced.getId()));
+        if (order.getStatus() != OrderStatus.PENDING) {
+            return false;
+        }
+        Map<Long, OrderItem> pricedItems = priced.getItems().stream()
+                .collect(Collectors.toMap(OrderItem::getId, Function.identity()));
+        for (OrderItem item : order.getItems()) {
+            OrderItem pricedItem = pricedItems.get(item.getId());
+            item.setPriceSnapshot(pricedItem.getPriceSnapshot());
+            item.setProductName(pricedItem.getProductName());
+        }
+        order.setTotalAmount(priced.getTotalAmount());
+        order.setStatus(OrderStatus.CONFIRMED);
+        recordChange("OrderConfirmed", mapToResponse(order));
+        return true;
+    }
+
+    private void recordChange(String eventType, OrderResponse order) {
+        changeEventOutbox.append(AGGREGATE_TYPE, order.id(), eventType, order);
+        orderHistory.project(order);
+    }
+
+    private boolean isAdmin() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    private Order newOrder(String userId, List<OrderItemRequest> itemRequests) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setOrderDate(LocalDateTime.now());
+
+        List<OrderItem> items = new ArrayList<>();
+        for (OrderItemRequest itemRequest : itemRequests) {
+            OrderItem item = new OrderItem();
+            item.setProductId(itemRequest.productId());
+            item.setQuantity(itemRequest.quantity());
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setItems(items);
+        return order;
+    }
+
+    private List<OrderItemRequest> price(Order order) {
+        List<OrderItemRequest> itemRequests = order.getItems().stream()
+                .map(item -> new OrderItemRequest(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+
+        Map<Long, ProductDTO> products = productServiceClient.getProductsByIds(itemRequests.stream()
+                .map(OrderItemRequest::productId)
+                .collect(Collectors.toList()));
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            ProductDTO product = products.get(item.getProductId());
+            if (product == null) {
+                throw new ProductNotFoundException("Product not found with id: " + item.getProductId());
+            }
+
+            // Snapshot stock may be slightly stale; the reservation below is authoritative
+            if (product.stockQuantity() < item.getQuantity()) {
+                throw new InsufficientStockException("Insufficient stock for product: " + product.name());
+            }
+
+            item.setPriceSnapshot(product.price());
+            item.setProductName(product.name());
+            BigDecimal itemTotal = product.price().multiply(BigDecimal.valueOf(item.getQuantity()));
+            totalAmount = totalAmount.add(itemTotal);
+        }
+        order.setTotalAmount(totalAmount);
+        return itemRequests;
+    }
+
+    // The body is part of the key, as in IdempotencyStore, so a reused key with another body is a new order
+    private static String reservationKey(OrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return "request:" + UUID.randomUUID();
+        }
+        return "request:" + UUID.nameUUIDFromBytes((idempotencyKey + "\n" + request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void releaseStock(UUID reservationId) {
+        try {
+            productServiceClient.releaseStock(reservationId);
+        } catch (Exception e) {
+            log.error("Failed to release stock reservation {}", reservationId, e);
+        }
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, maxPageSize)));
+    }
+
+    // Two queries per page: order rows, then all of their items in one IN query
+    private OrderPageResponse toPageResponse(Slice<OrderSummaryView> orders) {
+        Map<Long, List<OrderItemView>> itemsByOrder = orders.isEmpty()
+                ? Map.of()
+                : orderRepository.findItemViewsByOrderIds(orders.map(OrderSummaryView::id).getContent()).stream()
+                        .collect(Collectors.groupingBy(OrderItemView::orderId));
+
+        List<OrderResponse> responses = orders.stream()
+                .map(order -> new OrderResponse(
+                        order.id(),
+                        order.orderDate(),
+                        order.status(),
+                        order.totalAmount(),
+                        order.userId(),
+                        itemsByOrder.getOrDefault(order.id(), List.of()).stream()
+                                .map(item -> mapToItemResponse(item.productId(), item.productName(), item.quantity(),
+                                        item.priceSnapshot()))
+                                .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        return new OrderPageResponse(responses, orders.getNumber(), orders.getSize(), orders.hasNext());
+    }
+
+    OrderResponse mapToResponse(Order order) {
         List<OrderItemResponse> itemResponses = order.getItems().stream()
-                .map(item -> new OrderItemResponse(
-                        item.getProductId(),
-                        "Product #" + item.getProductId(), // In a real app we'd fetch names, or cache them
-                        item.getQuantity(),
-                        item.getPriceSnapshot(),
-                        item.getPriceSnapshot().multiply(BigDecimal.valueOf(item.getQuantity()))))
+                .map(item -> mapToItemResponse(item.getProductId(), item.getProductName(), item.getQuantity(),
+                        item.getPriceSnapshot()))
                 .collect(Collectors.toList());
 
         return new OrderResponse(
@@ -103,4 +327,13 @@ public class OrderService {
                 order.getUserId(),
                 itemResponses);
     }
+
+    private OrderItemResponse mapToItemResponse(Long productId, String productName, Integer quantity, BigDecimal price) {
+        return new OrderItemResponse(
+                productId,
+                productName != null ? productName : "Product #" + productId, // Not known until the order is priced
+                quantity,
+                price,
+                price != null ? price.multiply(BigDecimal.valueOf(quantity)) : null);
+    }
 }
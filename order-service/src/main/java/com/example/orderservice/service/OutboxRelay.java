@@ -0,0 +1,114 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.ChangeEvent;
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves committed outbox rows to the {@link ChangeEventPublisher} in batches.
+ * A batch is marked published in the same transaction that locked it, after
+ * the publisher accepted it. Before the first batch, rows already published
+ * and still retained are replayed, since the in-process broker's log does not
+ * survive a restart.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ChangeEventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedEvents;
+    private final int batchSize;
+    private final Duration retention;
+    // Only touched by relay(), which the scheduler never runs concurrently
+    private boolean replayed;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+            ChangeEventPublisher publisher,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.outbox.batch-size:500}") int batchSize,
+            @Value("${application.config.outbox.retention:24h}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedEvents = Counter.builder("outbox.events.published")
+                .description("Change events handed to the publisher")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!replayed) {
+            replayRetained();
+            replayed = true;
+        }
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.outbox.cleanup-interval-ms:3600000}")
+    public void deletePublishedEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Deleted {} published outbox events", deleted);
+        }
+    }
+
+    private void replayRetained() {
+        long after = 0;
+        List<OutboxEvent> page;
+        do {
+            long from = after;
+            page = transactionTemplate.execute(status -> outboxEventRepository.findPublishedAfter(from, batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            publisher.publish(page.stream().map(this::toChangeEvent).toList());
+            after = page.get(page.size() - 1).getId();
+        } while (page.size() == batchSize);
+        if (after > 0) {
+            log.info("Replayed retained outbox events up to id {}", after);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnpublished(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        publisher.publish(batch.stream().map(this::toChangeEvent).toList());
+        LocalDateTime publishedAt = LocalDateTime.now();
+        batch.forEach(event -> event.setPublishedAt(publishedAt));
+        publishedEvents.increment(batch.size());
+        return batch.size();
+    }
+
+    private ChangeEvent toChangeEvent(OutboxEvent event) {
+        return new ChangeEvent(
+                event.getId(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getEventType(),
+                event.getPayload(),
+                event.getCreatedAt());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.dto.ProductSalesResponse;
+import com.example.orderservice.repository.DailySalesRepository;
+import com.example.orderservice.repository.ProductSalesRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales aggregates for the admin dashboard. Confirmed orders are folded into
+ * per-day and per-product rows by a scheduled rollup rather than on the order
+ * path, so orders never contend on today's row; dashboard reads cost one row
+ * per bucket and lag by at most the rollup interval.
+ */
+@Service
+@Slf4j
+public class SalesStatsService {
+
+    private final DailySalesRepository dailySalesRepository;
+    private final ProductSalesRepository productSalesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter rolledUpOrders;
+    private final int batchSize;
+    private final int maxRangeDays;
+    private final int maxPageSize;
+
+    public SalesStatsService(DailySalesRepository dailySalesRepository,
+            ProductSalesRepository productSalesRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.sales-rollup.batch-size:1000}") int batchSize,
+            @Value("${application.config.sales-rollup.max-range-days:366}") int maxRangeDays,
+            @Value("${application.config.max-page-size:100}") int maxPageSize) {
+        this.dailySalesRepository = dailySalesRepository;
+        this.productSalesRepository = productSalesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rolledUpOrders = Counter.builder("orders.sales.rolled.up")
+                .description("Confirmed orders added to the sales aggregates")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.maxRangeDays = maxRangeDays;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.sales-rollup.interval-ms:10000}")
+    public void rollUp() {
+        Long rolledUp;
+        do {
+            rolledUp = transactionTemplate.execute(status -> productSalesRepository.rollUpConfirmedOrders(batchSize));
+            if (rolledUp != null && rolledUp > 0) {
+                rolledUpOrders.increment(rolledUp);
+                log.debug("Rolled up {} confirmed orders", rolledUp);
+            }
+        } while (rolledUp != null && rolledUp == batchSize);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyRevenue> getRevenueByDay(LocalDate from, LocalDate to) {
+        LocalDate start = from.isBefore(to.minusDays(maxRangeDays - 1L)) ? to.minusDays(maxRangeDays - 1L) : from;
+        return dailySalesRepository.findByDayBetweenOrderByDayAsc(start, to).stream()
+                .map(day -> new DailyRevenue(day.getDay(), day.getOrderCount(), day.getRevenue()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSalesResponse> getTopProducts(int limit) {
+        PageRequest top = PageRequest.ofSize(Math.max(1, Math.min(limit, maxPageSize)));
+        return productSalesRepository.findAllByOrderByQuantitySoldDescProductIdAsc(top).stream()
+                .map(product -> new ProductSalesResponse(product.getProductId(), product.getProductName(),
+                        product.getQuantitySold(), product.getRevenue()))
+                .toList();
+    }
+}
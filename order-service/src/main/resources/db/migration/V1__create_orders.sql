@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS orders (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_date   TIMESTAMP(6),
+    status       VARCHAR(255) CHECK (status IN ('PENDING', 'CONFIRMED', 'FAILED')),
+    total_amount NUMERIC(38, 2),
+    user_id      VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id     BIGINT         NOT NULL,
+    quantity       INTEGER        NOT NULL,
+    price_snapshot NUMERIC(38, 2) NOT NULL,
+    order_id       BIGINT REFERENCES orders (id)
+);
@@ -0,0 +1,8 @@
+-- Serves findByUserId and the per-user history page ordered by date
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_order_date ON orders (user_id, order_date DESC, id DESC);
+
+-- Serves the admin listing ordered by date
+CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders (order_date DESC, id DESC);
+
+-- Postgres does not index foreign keys; item loads join on order_id
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
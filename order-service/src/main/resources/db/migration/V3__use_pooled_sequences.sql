@@ -0,0 +1,9 @@
+-- Sequence ids with increment 50 let Hibernate allocate ids in memory and batch inserts.
+-- The first value is max(id) + 50, so the first pooled block starts right after the current max id.
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+SELECT setval('orders_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM orders), false);
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+SELECT setval('order_items_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM order_items), false);
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,10 @@
+-- Until now every order was stored as PENDING once it had been priced: PENDING meant "placed", and older
+-- rows predate stock reservation altogether. No worker will ever pick these rows up, and the stale-order
+-- sweeper would otherwise fail them, so existing orders are taken as confirmed.
+UPDATE orders SET status = 'CONFIRMED' WHERE status = 'PENDING';
+
+-- Async orders are stored before pricing; prices are filled in when the order is confirmed.
+ALTER TABLE order_items ALTER COLUMN price_snapshot DROP NOT NULL;
+
+-- Lets the sweeper find orders stuck in PENDING without scanning confirmed history.
+CREATE INDEX IF NOT EXISTS idx_orders_pending ON orders (order_date) WHERE status = 'PENDING';
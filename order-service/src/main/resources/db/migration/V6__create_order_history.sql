@@ -0,0 +1,36 @@
+-- Product names are captured when an order is priced; earlier items have none.
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS product_name VARCHAR(255);
+
+-- Per-user order history read model: one precomputed OrderResponse document per order,
+-- kept up to date in the same transaction as every order write.
+CREATE TABLE IF NOT EXISTS order_history (
+    order_id   BIGINT       PRIMARY KEY,
+    user_id    VARCHAR(255) NOT NULL,
+    order_date TIMESTAMP(6),
+    document   TEXT         NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_history_user_id_order_date
+    ON order_history (user_id, order_date DESC, order_id DESC);
+
+-- Existing orders, rendered the way OrderResponse serializes them. Product names live in product-service's
+-- database and cannot be looked up here, so items without a captured name get the same 'Product #<id>'
+-- placeholder OrderService renders for them.
+INSERT INTO order_history (order_id, user_id, order_date, document)
+SELECT o.id, o.user_id, o.order_date, json_build_object(
+        'id', o.id,
+        'orderDate', o.order_date,
+        'status', o.status,
+        'totalAmount', o.total_amount,
+        'userId', o.user_id,
+        'items', COALESCE((
+            SELECT json_agg(json_build_object(
+                    'productId', i.product_id,
+                    'productName', COALESCE(i.product_name, 'Product #' || i.product_id),
+                    'quantity', i.quantity,
+                    'price', i.price_snapshot,
+                    'subTotal', i.price_snapshot * i.quantity) ORDER BY i.id)
+            FROM order_items i
+            WHERE i.order_id = o.id), '[]'::json))::text
+FROM orders o
+ON CONFLICT (order_id) DO NOTHING;
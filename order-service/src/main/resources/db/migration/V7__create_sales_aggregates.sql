@@ -0,0 +1,23 @@
+-- Confirmed orders not yet folded into the sales aggregates. Existing orders start unrecorded,
+-- so the first rollups backfill the aggregates in batches.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS sales_recorded BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_orders_sales_unrecorded ON orders (id)
+    WHERE status = 'CONFIRMED' AND NOT sales_recorded;
+
+-- One row per calendar day; the dashboard reads a date range of buckets.
+CREATE TABLE IF NOT EXISTS daily_sales (
+    day         DATE           PRIMARY KEY,
+    order_count BIGINT         NOT NULL,
+    revenue     NUMERIC(38, 2) NOT NULL
+);
+
+-- One row per product ever sold; top sellers come straight off the index.
+CREATE TABLE IF NOT EXISTS product_sales (
+    product_id    BIGINT         PRIMARY KEY,
+    product_name  VARCHAR(255),
+    quantity_sold BIGINT         NOT NULL,
+    revenue       NUMERIC(38, 2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_sales_quantity_sold ON product_sales (quantity_sold DESC, product_id);
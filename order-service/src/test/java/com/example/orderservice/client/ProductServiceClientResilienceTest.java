@@ -0,0 +1,161 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.config.WebClientConfig;
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.exception.ProductNotFoundException;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs ProductServiceClient against a local stub of product-service that can
+ * be made slow or failing, with the retry and breaker settings scaled down.
+ */
+class ProductServiceClientResilienceTest {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(200);
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+    private volatile Duration delay = Duration.ZERO;
+
+    private HttpServer stub;
+    private ConnectionProvider connectionProvider;
+    private CircuitBreaker circuitBreaker;
+    private ProductServiceClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/api/products/", exchange -> {
+            requests.incrementAndGet();
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        stub.start();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WebClientConfig webClientConfig = new WebClientConfig();
+        connectionProvider = webClientConfig.productServiceConnectionProvider(
+                10, Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofMinutes(5));
+        WebClient webClient = webClientConfig.webClient(WebClient.builder(), connectionProvider,
+                "http://localhost:" + stub.getAddress().getPort() + "/api/products",
+                Duration.ofSeconds(1), READ_TIMEOUT, false);
+
+        // Same recorded and retried exceptions as application.yml, with a window small enough to trip quickly
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .recordExceptions(WebClientRequestException.class,
+                        WebClientResponseException.InternalServerError.class,
+                        WebClientResponseException.ServiceUnavailable.class)
+                .build());
+        RetryRegistry retries = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(3)
+                .waitDuration(Duration.ofMillis(10))
+                .retryExceptions(WebClientRequestException.class,
+                        WebClientResponseException.InternalServerError.class,
+                        WebClientResponseException.ServiceUnavailable.class)
+                .build());
+        circuitBreaker = circuitBreakers.circuitBreaker("product-service");
+
+        ProductCache productCache = new ProductCache(meterRegistry, 100, Duration.ofSeconds(30), Duration.ofSeconds(2));
+        client = new ProductServiceClient(webClient, productCache, meterRegistry, circuitBreakers,
+                BulkheadRegistry.ofDefaults(), retries, 100, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        stub.stop(0);
+    }
+
+    @Test
+    void slowResponsesTimeOutAndAreRetriedAsUnavailable() {
+        delay = Duration.ofSeconds(2);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.getProductById(1L))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(delay);
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void openBreakerRejectsCallsWithoutReachingProductService() {
+        status = 503;
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> client.getProductById(1L))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int sent = requests.get();
+        assertThatThrownBy(() -> client.getProductById(1L))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(requests).hasValue(sent);
+    }
+
+    @Test
+    void unknownProductIsNeitherRetriedNorCountedAsFailure() {
+        status = 404;
+
+        assertThatThrownBy(() -> client.getProductById(1L)).isInstanceOf(ProductNotFoundException.class);
+
+        assertThat(requests).hasValue(1);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    @Test
+    void timedOutReservationIsRetriedWithTheSameKey() {
+        delay = Duration.ofSeconds(2);
+
+        assertThatThrownBy(() -> client.reserveStock("order:42", List.of(new OrderItemRequest(1L, 2))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(requests).hasValue(3);
+        assertThat(bodies).allSatisfy(body -> assertThat(body).contains("\"reservationKey\":\"order:42\""));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.config.WebClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.observation.web.client.HttpClientObservationsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.tracing.MicrometerTracingAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.reactor.ReactorAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls a local stub of product-service through ProductServiceClient, wired
+ * with the same tracing auto-configuration as the service, and checks that
+ * the outgoing request carries the caller's trace in its traceparent header.
+ */
+@AutoConfigureObservability(metrics = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "management.tracing.sampling.probability=1.0",
+        "spring.reactor.context-propagation=auto"})
+class ProductServiceClientTracingTest {
+
+    private static final List<String> traceparents = new CopyOnWriteArrayList<>();
+    private static HttpServer stub;
+
+    @Autowired
+    private ProductServiceClient client;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter spans;
+
+    @DynamicPropertySource
+    static void productService(DynamicPropertyRegistry registry) throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/api/products/", exchange -> {
+            traceparents.add(exchange.getRequestHeaders().getFirst("traceparent"));
+            byte[] body = "{\"id\":1,\"name\":\"Mug\",\"description\":\"\",\"price\":9.99,\"stockQuantity\":10}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stub.start();
+        registry.add("application.config.product-service-url",
+                () -> "http://localhost:" + stub.getAddress().getPort() + "/api/products");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void productServiceRequestJoinsTheCallersTrace() {
+        // Stands in for the server observation of the incoming order request
+        String traceId = Observation.createNotStarted("place-order", observationRegistry).observe(() -> {
+            client.getProductById(1L);
+            return tracer.currentSpan().context().traceId();
+        });
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        assertThat(traceparents).hasSize(1);
+        String[] traceparent = traceparents.get(0).split("-");
+        assertThat(traceparent[1]).isEqualTo(traceId);
+
+        List<SpanData> exported = spans.getFinishedSpanItems();
+        assertThat(exported).extracting(SpanData::getTraceId).hasSizeGreaterThanOrEqualTo(2).containsOnly(traceId);
+        // The header names the client span as product-service's parent
+        assertThat(exported).extracting(SpanData::getSpanId).contains(traceparent[2]);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ReactorAutoConfiguration.class, JacksonAutoConfiguration.class,
+            CodecsAutoConfiguration.class, WebClientAutoConfiguration.class, MetricsAutoConfiguration.class,
+            SimpleMetricsExportAutoConfiguration.class, ObservationAutoConfiguration.class,
+            MicrometerTracingAutoConfiguration.class,
+            org.springframework.boot.actuate.autoconfigure.opentelemetry.OpenTelemetryAutoConfiguration.class,
+            org.springframework.boot.actuate.autoconfigure.tracing.OpenTelemetryAutoConfiguration.class,
+            HttpClientObservationsAutoConfiguration.class})
+    @Import({WebClientConfig.class, ProductCache.class, ProductServiceClient.class})
+    static class TracingConfig {
+
+        @Bean
+        InMemorySpanExporter spanExporter() {
+            return InMemorySpanExporter.create();
+        }
+
+        @Bean
+        CircuitBreakerRegistry circuitBreakerRegistry() {
+            return CircuitBreakerRegistry.ofDefaults();
+        }
+
+        @Bean
+        BulkheadRegistry bulkheadRegistry() {
+            return BulkheadRegistry.ofDefaults();
+        }
+
+        @Bean
+        RetryRegistry retryRegistry() {
+            return RetryRegistry.ofDefaults();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.orderservice.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks on a migrated, seeded database that the newest-first listings are
+ * read from their composite indexes in order, with no sort step.
+ */
+class OrderIndexPlanTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrateAndSeed() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .load()
+                .migrate();
+
+        jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        // 500 users with 100 orders each, so one user's rows are a small fraction of the table
+        jdbc.update("""
+                INSERT INTO orders (id, order_date, status, total_amount, user_id)
+                SELECT n, now() - make_interval(mins => n), 'CONFIRMED', 10, 'user-' || (n % 500)
+                FROM generate_series(1, 50000) AS n
+                """);
+        jdbc.update("""
+                INSERT INTO order_history (order_id, user_id, order_date, document)
+                SELECT id, user_id, order_date, '{}' FROM orders
+                """);
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void userOrdersAreReadNewestFirstFromTheUserDateIndex() {
+        assertThat(plan("""
+                SELECT id FROM orders WHERE user_id = 'user-7'
+                ORDER BY order_date DESC, id DESC LIMIT 20
+                """))
+                .contains("using idx_orders_user_id_order_date")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void userHistoryPageIsReadNewestFirstFromTheHistoryIndex() {
+        assertThat(plan("""
+                SELECT document FROM order_history WHERE user_id = 'user-7'
+                ORDER BY order_date DESC, order_id DESC LIMIT 21
+                """))
+                .contains("using idx_order_history_user_id_order_date")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void adminListingIsReadNewestFirstFromTheDateIndex() {
+        assertThat(plan("SELECT id FROM orders ORDER BY order_date DESC, id DESC LIMIT 21"))
+                .contains("using idx_orders_order_date")
+                .doesNotContain("Sort");
+    }
+
+    private static String plan(String query) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + query, String.class));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.ProductDTO;
+import com.example.orderservice.dto.StockReservationResponse;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.entity.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks which reservation key each placement path sends, so a retried
+ * placement gets its first reservation back instead of taking stock again.
+ */
+class OrderServiceTest {
+
+    private static final UUID RESERVATION_ID = UUID.randomUUID();
+    private static final OrderRequest REQUEST = new OrderRequest(List.of(new OrderItemRequest(1L, 2)));
+
+    private OrderRepository orderRepository;
+    private ProductServiceClient productServiceClient;
+    private OrderService orderService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        productServiceClient = mock(ProductServiceClient.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        when(productServiceClient.getProductsByIds(any()))
+                .thenReturn(Map.of(1L, new ProductDTO(1L, "Mug", "", new BigDecimal("9.99"), 10)));
+        when(productServiceClient.reserveStock(anyString(), any()))
+                .thenReturn(new StockReservationResponse(RESERVATION_ID, false));
+        orderService = new OrderService(orderRepository, productServiceClient, mock(ChangeEventOutbox.class),
+                mock(OrderHistory.class), transactionTemplate);
+
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("user-1").build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void retriedRequestReservesUnderTheSameKey() {
+        doThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE))
+                .doNothing()
+                .when(productServiceClient).confirmReservation(RESERVATION_ID);
+
+        assertThatThrownBy(() -> orderService.createOrder(REQUEST, "key-1"))
+                .isInstanceOf(ResponseStatusException.class);
+        orderService.createOrder(REQUEST, "key-1");
+
+        List<String> keys = reservationKeys(2);
+        assertThat(keys.get(0)).startsWith("request:").isEqualTo(keys.get(1));
+        verify(productServiceClient).releaseStock(RESERVATION_ID);
+    }
+
+    @Test
+    void reusedKeyWithAnotherBodyIsANewReservation() {
+        orderService.createOrder(REQUEST, "key-1");
+        orderService.createOrder(new OrderRequest(List.of(new OrderItemRequest(1L, 3))), "key-1");
+
+        List<String> keys = reservationKeys(2);
+        assertThat(keys.get(0)).isNotEqualTo(keys.get(1));
+    }
+
+    @Test
+    void alreadyConfirmedReservationMeansTheOrderWasPlaced() {
+        when(productServiceClient.reserveStock(anyString(), any()))
+                .thenReturn(new StockReservationResponse(RESERVATION_ID, true));
+
+        assertThatThrownBy(() -> orderService.createOrder(REQUEST, "key-1"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        verify(productServiceClient, never()).confirmReservation(any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void retriedPendingOrderReservesUnderTheOrderKey() {
+        Order order = pendingOrder(7L);
+        when(orderRepository.findWithItemsById(7L)).thenReturn(Optional.of(order));
+        when(orderRepository.findForUpdateById(7L)).thenReturn(Optional.of(order));
+        doThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE))
+                .doNothing()
+                .when(productServiceClient).confirmReservation(RESERVATION_ID);
+
+        assertThatThrownBy(() -> orderService.confirmOrder(7L)).isInstanceOf(ResponseStatusException.class);
+        assertThat(orderService.confirmOrder(7L)).isEqualTo(OrderStatus.CONFIRMED);
+
+        assertThat(reservationKeys(2)).containsOnly("order:7");
+    }
+
+    private List<String> reservationKeys(int calls) {
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(productServiceClient, times(calls)).reserveStock(keys.capture(), any());
+        return keys.getAllValues();
+    }
+
+    private static Order pendingOrder(Long id) {
+        Order order = Order.builder()
+                .id(id)
+                .userId("user-1")
+                .orderDate(LocalDateTime.now())
+                .status(OrderStatus.PENDING)
+                .items(new ArrayList<>())
+                .build();
+        order.getItems().add(OrderItem.builder().id(70L).productId(1L).quantity(2).order(order).build());
+        return order;
+    }
+}
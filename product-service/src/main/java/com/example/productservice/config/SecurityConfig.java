@@ -1,5 +1,7 @@
 package com.example.productservice.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -14,6 +16,7 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.web.SecurityFilterChain;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -27,6 +30,14 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/products/events", "/api/products/events/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/products/low-stock").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/products/batch").hasAnyRole("ADMIN", "CLIENT")
+                        // Called by order-service with the ordering user's token; not routed by the gateway.
+                        // A release only hands back a reservation the same user made, so none of these add stock.
+                        .requestMatchers(HttpMethod.POST, "/api/products/reserve", "/api/products/confirm",
+                                "/api/products/release")
+                        .hasAnyRole("ADMIN", "CLIENT")
                         .requestMatchers(HttpMethod.POST, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
@@ -48,16 +59,23 @@ public class SecurityConfig {
 }
 
 class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    // Keyed by role list; users share a few combinations
+    private final Cache<List<String>, List<GrantedAuthority>> authorities = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .build();
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
         Map<String, Object> realmAccess = jwt.getClaim("realm_access");
         if (realmAccess == null || realmAccess.isEmpty()) {
-            return java.util.List.of();
+            return List.of();
         }
 
-        return ((Collection<String>) realmAccess.get("roles")).stream()
+        List<String> roles = List.copyOf((Collection<String>) realmAccess.get("roles"));
+        return authorities.get(roles, key -> key.stream()
                 .map(roleName -> "ROLE_" + roleName)
                 .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList()));
     }
 }
@@ -0,0 +1,36 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.dto.ChangeEventBatch;
+import com.example.productservice.dto.ConsumerOffset;
+import com.example.productservice.service.InProcessChangeEventBroker;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/products/events")
+@RequiredArgsConstructor
+public class ChangeEventController {
+
+    private final InProcessChangeEventBroker broker;
+
+    @Value("${application.config.max-page-size:100}")
+    private int maxPageSize;
+
+    @GetMapping
+    public ChangeEventBatch getEvents(@RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return broker.read(after, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    @GetMapping("/offsets/{consumer}")
+    public ConsumerOffset getOffset(@PathVariable String consumer) {
+        return new ConsumerOffset(broker.committedOffset(consumer));
+    }
+
+    @PutMapping("/offsets/{consumer}")
+    public ConsumerOffset commitOffset(@PathVariable String consumer, @Valid @RequestBody ConsumerOffset offset) {
+        return new ConsumerOffset(broker.commit(consumer, offset.offset()));
+    }
+}
@@ -1,20 +1,36 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.dto.BulkImportResponse;
+import com.example.productservice.dto.ProductChangesResponse;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.StockConfirmRequest;
+import com.example.productservice.dto.StockReleaseRequest;
+import com.example.productservice.dto.StockReservationRequest;
+import com.example.productservice.dto.StockReservationResponse;
+import com.example.productservice.service.ProductBulkImporter;
 import com.example.productservice.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final ProductService productService;
+    private final ProductBulkImporter productBulkImporter;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -22,19 +38,41 @@ public class ProductController {
         return productService.createProduct(request);
     }
 
-    @GetMapping
-    public List<ProductResponse> getAllProducts() {
-        return productService.getAllProducts();
+    @GetMapping("/changes")
+    public ProductChangesResponse getChanges(@RequestParam(defaultValue = "0") long since) {
+        return productService.getChangesSince(since);
+    }
+
+    @PostMapping(value = "/bulk", consumes = TEXT_CSV_VALUE)
+    public BulkImportResponse importCsv(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = bodyReader(request)) {
+            return productBulkImporter.importCsv(reader);
+        }
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BulkImportResponse importNdjson(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = bodyReader(request)) {
+            return productBulkImporter.importNdjson(reader);
+        }
+    }
+
+    @PostMapping("/reserve")
+    @ResponseStatus(HttpStatus.CREATED)
+    public StockReservationResponse reserveStock(@Valid @RequestBody StockReservationRequest request) {
+        return productService.reserveStock(request);
     }
 
-    @GetMapping("/search")
-    public List<ProductResponse> searchProducts(@RequestParam String query) {
-        return productService.searchProducts(query);
+    @PostMapping("/confirm")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void confirmReservation(@Valid @RequestBody StockConfirmRequest request) {
+        productService.confirmReservation(request);
     }
 
-    @GetMapping("/{id}")
-    public ProductResponse getProductById(@PathVariable Long id) {
-        return productService.getProductById(id);
+    @PostMapping("/release")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseStock(@Valid @RequestBody StockReleaseRequest request) {
+        productService.releaseStock(request);
     }
 
     @PutMapping("/{id}")
@@ -47,4 +85,12 @@ public class ProductController {
     public void deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
     }
+
+    private static BufferedReader bodyReader(HttpServletRequest request) throws IOException {
+        // Servlet containers default to ISO-8859-1 when the client names no charset
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(request.getInputStream(), charset));
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.dto.ProductPageResponse;
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.service.ProductService;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/**
+ * Catalog reads over JPA. Replaced by {@link ReactiveProductQueryController}
+ * when the reactive-reads profile is active.
+ */
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+@Profile("!reactive-reads")
+public class ProductQueryController {
+    // Default of application.config.max-page-size, which the service enforces when set lower
+    private static final int MAX_BATCH_SIZE = 1000;
+    // Page size for cursor requests that leave out limit
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ProductService productService;
+
+    @GetMapping
+    public List<ProductResponse> getAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    @GetMapping(params = "limit")
+    public ProductPageResponse getProductPage(@RequestParam(defaultValue = "0") Long after, @RequestParam int limit) {
+        return productService.getProductPage(after, limit);
+    }
+
+    // Without this, ?after=... alone would fall through to the unbounded listing
+    @GetMapping(params = {"after", "!limit"})
+    public ProductPageResponse getProductPage(@RequestParam Long after) {
+        return getProductPage(after, DEFAULT_PAGE_SIZE);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productService::streamProducts);
+    }
+
+    @GetMapping("/low-stock")
+    public List<ProductResponse> getLowStockProducts(@RequestParam(defaultValue = "10") int threshold,
+            @RequestParam(defaultValue = "50") int limit) {
+        return productService.getLowStockProducts(threshold, limit);
+    }
+
+    @GetMapping("/search")
+    public List<ProductResponse> searchProducts(@RequestParam String query,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return productService.searchProducts(query, prefix, page, size);
+    }
+
+    @PostMapping("/batch")
+    public List<ProductResponse> getProductsByIds(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@NotNull Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    @GetMapping("/{id}")
+    public ProductResponse getProductById(@PathVariable Long id) {
+        return productService.getProductById(id);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.dto.ProductPageResponse;
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.service.ReactiveProductService;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Catalog reads over R2DBC, active with the reactive-reads profile. Spring MVC
+ * handles the Mono and Flux results asynchronously, so the Tomcat thread is
+ * released while the query runs.
+ */
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+@Profile("reactive-reads")
+public class ReactiveProductQueryController {
+    // Default of application.config.max-page-size, which the service enforces when set lower
+    private static final int MAX_BATCH_SIZE = 1000;
+    // Page size for cursor requests that leave out limit
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ReactiveProductService productService;
+
+    @GetMapping
+    public Flux<ProductResponse> getAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<ProductPageResponse> getProductPage(@RequestParam(defaultValue = "0") Long after,
+            @RequestParam int limit) {
+        return productService.getProductPage(after, limit);
+    }
+
+    // Without this, ?after=... alone would fall through to the unbounded listing
+    @GetMapping(params = {"after", "!limit"})
+    public Mono<ProductPageResponse> getProductPage(@RequestParam Long after) {
+        return getProductPage(after, DEFAULT_PAGE_SIZE);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductResponse> streamProducts() {
+        return productService.streamProducts();
+    }
+
+    @GetMapping("/low-stock")
+    public Flux<ProductResponse> getLowStockProducts(@RequestParam(defaultValue = "10") int threshold,
+            @RequestParam(defaultValue = "50") int limit) {
+        return productService.getLowStockProducts(threshold, limit);
+    }
+
+    @GetMapping("/search")
+    public Flux<ProductResponse> searchProducts(@RequestParam String query,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return productService.searchProducts(query, prefix, page, size);
+    }
+
+    @PostMapping("/batch")
+    public Flux<ProductResponse> getProductsByIds(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@NotNull Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ProductResponse> getProductById(@PathVariable Long id) {
+        return productService.getProductById(id);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.productservice.dto;
+
+public record BulkImportError(
+        long line,
+        String message) {
+}
@@ -0,0 +1,11 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+public record BulkImportResponse(
+        long processed,
+        long created,
+        long updated,
+        long failed,
+        List<BulkImportError> errors) {
+}
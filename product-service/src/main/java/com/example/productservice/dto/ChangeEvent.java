@@ -0,0 +1,13 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.time.LocalDateTime;
+
+public record ChangeEvent(
+        Long eventId,
+        String aggregateType,
+        Long aggregateId,
+        String eventType,
+        @JsonRawValue String payload,
+        LocalDateTime occurredAt) {
+}
@@ -0,0 +1,9 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+public record ChangeEventBatch(
+        String epoch,
+        boolean complete,
+        List<ChangeEventRecord> records) {
+}
@@ -0,0 +1,7 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.Min;
+
+public record ConsumerOffset(
+        @Min(value = 0, message = "Offset must not be negative") long offset) {
+}
@@ -0,0 +1,10 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+public record ProductChangesResponse(
+        String epoch,
+        long version,
+        boolean complete,
+        List<Long> productIds) {
+}
@@ -0,0 +1,19 @@
+package com.example.productservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a bulk import; rows with an id update that product, rows
+ * without one create a new product.
+ */
+public record ProductImportRow(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer stockQuantity) {
+
+    public ProductRequest toRequest() {
+        return new ProductRequest(name, description, price, stockQuantity);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+public record ProductPageResponse(
+        List<ProductResponse> items,
+        Long nextCursor) {
+}
@@ -5,8 +5,10 @@ import java.math.BigDecimal;
 
 public record ProductRequest(
     @NotBlank(message = "Name is mandatory")
+    @Size(max = 255, message = "Name must be at most 255 characters")
     String name,
     
+    @Size(max = 255, message = "Description must be at most 255 characters")
     String description,
     
     @NotNull(message = "Price is mandatory")
@@ -0,0 +1,8 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.UUID;
+
+public record StockConfirmRequest(
+        @NotNull(message = "Reservation ID is mandatory") UUID reservationId) {
+}
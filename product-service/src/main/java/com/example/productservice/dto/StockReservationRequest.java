@@ -0,0 +1,14 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record StockReservationRequest(
+        @NotBlank(message = "Reservation key is mandatory")
+        @Size(max = 255, message = "Reservation key must be at most 255 characters") String reservationKey,
+
+        @NotEmpty(message = "Items cannot be empty") @Valid List<StockReservationItem> items) {
+}
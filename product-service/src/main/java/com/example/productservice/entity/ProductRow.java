@@ -0,0 +1,19 @@
+package com.example.productservice.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only R2DBC mapping of the products table used by the reactive-reads
+ * profile; writes still go through {@link Product}.
+ */
+@Table("products")
+public record ProductRow(
+        @Id Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer stockQuantity) {
+}
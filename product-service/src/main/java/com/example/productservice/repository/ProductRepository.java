@@ -1,12 +1,46 @@
 package com.example.productservice.repository;
 
 import com.example.productservice.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByNameContainingIgnoreCase(String name);
+    // <-> is trigram distance; the GiST index returns matches closest first, so only offset + limit rows are read.
+    // A tie-breaking sort key would make Postgres score and sort every match again.
+    @Query(value = "select * from products where lower(name) like '%' || lower(:query) || '%' escape '\\' "
+            + "order by lower(name) <-> lower(:query) limit :limit offset :offset", nativeQuery = true)
+    List<Product> searchByName(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = "select * from products where lower(name) like lower(:prefix) || '%' escape '\\' "
+            + "order by lower(name), id limit :limit offset :offset", nativeQuery = true)
+    List<Product> searchByNamePrefix(@Param("prefix") String prefix, @Param("limit") int limit, @Param("offset") long offset);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Product> findByStockQuantityLessThanEqualOrderByStockQuantityAscIdAsc(int threshold, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
+
+    // Conditional update: the row lock taken by the UPDATE makes check-and-decrement atomic
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - :quantity where p.id = :id and p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity + :quantity where p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
@@ -0,0 +1,28 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.entity.ProductRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveProductRepository extends ReactiveCrudRepository<ProductRow, Long> {
+    // Same distance ordering as ProductRepository.searchByName, so the GiST index is walked rather than sorted
+    @Query("select * from products where lower(name) like '%' || lower(:query) || '%' escape '\\' "
+            + "order by lower(name) <-> lower(:query) limit :limit offset :offset")
+    Flux<ProductRow> searchByName(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query("select * from products where lower(name) like lower(:prefix) || '%' escape '\\' "
+            + "order by lower(name), id limit :limit offset :offset")
+    Flux<ProductRow> searchByNamePrefix(@Param("prefix") String prefix, @Param("limit") int limit, @Param("offset") long offset);
+
+    Flux<ProductRow> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    Flux<ProductRow> findByStockQuantityLessThanEqualOrderByStockQuantityAscIdAsc(int threshold, Pageable pageable);
+
+    @Query("select * from products order by id")
+    Flux<ProductRow> streamAll();
+}
@@ -0,0 +1,56 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    // Inserts nothing for a key the user already has; a concurrent insert of the same key is waited for first
+    @Modifying
+    @Query(value = "insert into stock_reservations (id, user_id, reservation_key, created_at) "
+            + "values (:id, :userId, :reservationKey, :now) "
+            + "on conflict on constraint uk_stock_reservations_user_key do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("userId") String userId,
+            @Param("reservationKey") String reservationKey, @Param("now") LocalDateTime now);
+
+    Optional<StockReservation> findByUserIdAndReservationKey(String userId, String reservationKey);
+
+    // Conditional update: of two concurrent releases of one reservation, only one matches
+    @Modifying
+    @Query("update StockReservation r set r.releasedAt = :now "
+            + "where r.id = :id and r.userId = :userId and r.releasedAt is null")
+    int markReleased(@Param("id") UUID id, @Param("userId") String userId, @Param("now") LocalDateTime now);
+
+    // Matches a reservation that is already confirmed too, so a repeated confirm succeeds
+    @Modifying
+    @Query("update StockReservation r set r.confirmedAt = coalesce(r.confirmedAt, :now) "
+            + "where r.id = :id and r.userId = :userId and r.releasedAt is null")
+    int markConfirmed(@Param("id") UUID id, @Param("userId") String userId, @Param("now") LocalDateTime now);
+
+    // Of two concurrent retries of a released key, only one takes the stock again
+    @Modifying
+    @Query("update StockReservation r set r.releasedAt = null, r.confirmedAt = null, r.createdAt = :now "
+            + "where r.id = :id and r.releasedAt is not null")
+    int reopen(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Query("select r.id from StockReservation r "
+            + "where r.confirmedAt is null and r.releasedAt is null and r.createdAt < :cutoff order by r.createdAt")
+    List<UUID> findUnconfirmedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // A reservation confirmed, released or retaken since it was found no longer matches
+    @Modifying
+    @Query("update StockReservation r set r.releasedAt = :now "
+            + "where r.id = :id and r.confirmedAt is null and r.releasedAt is null and r.createdAt < :cutoff")
+    int markExpired(@Param("id") UUID id, @Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+}
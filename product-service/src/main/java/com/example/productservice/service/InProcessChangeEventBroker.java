@@ -0,0 +1,61 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ChangeEvent;
+import com.example.productservice.dto.ChangeEventBatch;
+import com.example.productservice.dto.ChangeEventRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a message broker: a bounded, offset-addressed log
+ * that consumers read over HTTP, plus their committed offsets. Both live in
+ * memory of this instance, so the epoch changes on restart and consumers
+ * holding an offset from another epoch must start over.
+ */
+@Component
+public class InProcessChangeEventBroker implements ChangeEventPublisher {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final TreeMap<Long, ChangeEvent> log = new TreeMap<>();
+    private final Map<String, Long> consumerOffsets = new ConcurrentHashMap<>();
+    private final int capacity;
+    private long lastOffset;
+
+    public InProcessChangeEventBroker(@Value("${application.config.event-log-capacity:100000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            log.put(++lastOffset, event);
+        }
+        log.headMap(lastOffset - capacity, true).clear();
+    }
+
+    public synchronized ChangeEventBatch read(long after, int limit) {
+        Map.Entry<Long, ChangeEvent> oldest = log.firstEntry();
+        // Events the caller has not seen were already trimmed
+        boolean complete = after >= lastOffset || (oldest != null && oldest.getKey() <= after + 1);
+
+        List<ChangeEventRecord> records = log.tailMap(after, false).entrySet().stream()
+                .limit(limit)
+                .map(entry -> new ChangeEventRecord(entry.getKey(), entry.getValue()))
+                .toList();
+        return new ChangeEventBatch(epoch, complete, records);
+    }
+
+    public long committedOffset(String consumer) {
+        return consumerOffsets.getOrDefault(consumer, 0L);
+    }
+
+    public long commit(String consumer, long offset) {
+        return consumerOffsets.merge(consumer, offset, Math::max);
+    }
+}
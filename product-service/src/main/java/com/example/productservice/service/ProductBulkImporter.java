@@ -0,0 +1,382 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.BulkImportError;
+import com.example.productservice.dto.BulkImportResponse;
+import com.example.productservice.dto.ProductImportRow;
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from CSV or NDJSON one line at a time. Valid rows are
+ * written in JDBC batches, each in its own transaction, so memory stays
+ * constant however large the upload is; invalid rows are reported by line
+ * number and skipped, and a batch the database rejects is bisected so only
+ * the offending rows fail. Rows with an id update that product, the rest are
+ * inserted.
+ */
+@Service
+@Slf4j
+public class ProductBulkImporter {
+    private static final String AGGREGATE_TYPE = "product";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (name, description, price, stock_quantity) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_PRODUCT =
+            "UPDATE products SET name = ?, description = ?, price = ?, stock_quantity = ? WHERE id = ?";
+    private static final String INSERT_EVENT = "INSERT INTO outbox_events "
+            + "(aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductChangeLog productChangeLog;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public ProductBulkImporter(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ProductChangeLog productChangeLog,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${application.config.bulk-import.batch-size:1000}") int batchSize,
+            @Value("${application.config.bulk-import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productChangeLog = productChangeLog;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(ProductImportRow.class);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public BulkImportResponse importNdjson(BufferedReader reader) throws IOException {
+        return importRows(reader, 0, this::parseJsonRow);
+    }
+
+    public BulkImportResponse importCsv(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header row is missing");
+        }
+        CsvColumns columns = CsvColumns.parse(header);
+        return importRows(reader, 1, columns::toRow);
+    }
+
+    private ProductImportRow parseJsonRow(String line) throws IOException {
+        ProductImportRow row = rowReader.readValue(line);
+        if (row == null) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        return row;
+    }
+
+    private BulkImportResponse importRows(BufferedReader reader, long firstLine, RowParser parser) throws IOException {
+        ImportProgress progress = new ImportProgress(maxErrors);
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        long lineNumber = firstLine;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.processed++;
+
+            ProductImportRow row;
+            try {
+                row = parser.parse(line);
+            } catch (IOException | IllegalArgumentException e) {
+                progress.fail(lineNumber, "Malformed row: " + e.getMessage());
+                continue;
+            }
+
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(row.toRequest());
+            if (!violations.isEmpty()) {
+                progress.fail(lineNumber, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+
+            batch.add(new PendingRow(lineNumber, row));
+            if (batch.size() == batchSize) {
+                flush(batch, progress);
+                batch.clear();
+            }
+        }
+        flush(batch, progress);
+        return progress.toResponse();
+    }
+
+    private void flush(List<PendingRow> batch, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingRow> inserts = batch.stream().filter(row -> row.row().id() == null).toList();
+        List<PendingRow> updates = batch.stream().filter(row -> row.row().id() != null).toList();
+
+        BatchResult result;
+        try {
+            result = transactionTemplate.execute(status -> {
+                List<ProductResponse> created = insert(inserts);
+                BatchResult updated = update(updates);
+                appendEvents("ProductCreated", created);
+                appendEvents("ProductUpdated", updated.updated());
+                return new BatchResult(created, updated.updated(), updated.missing());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                PendingRow row = batch.get(0);
+                progress.fail(row.line(), "Rejected by the database: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            // The batch rolled back as a whole; halving it isolates the offending rows and still writes the rest
+            int middle = batch.size() / 2;
+            flush(batch.subList(0, middle), progress);
+            flush(batch.subList(middle, batch.size()), progress);
+            return;
+        } catch (DataAccessException e) {
+            log.warn("Bulk import batch of {} rows failed", batch.size(), e);
+            String message = "Batch failed: " + e.getMostSpecificCause().getMessage();
+            batch.forEach(row -> progress.fail(row.line(), message));
+            return;
+        }
+
+        progress.created += result.created().size();
+        progress.updated += result.updated().size();
+        result.updated().forEach(product -> productChangeLog.record(product.id()));
+        result.missing().forEach(row -> progress.fail(row.line(), "Product not found with id: " + row.row().id()));
+    }
+
+    private List<ProductResponse> insert(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_PRODUCT, new String[] {"id"}),
+                setter(rows, ProductBulkImporter::bindProduct), keys);
+
+        List<ProductResponse> created = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Long id = ((Number) keys.getKeyList().get(i).get("id")).longValue();
+            created.add(toResponse(id, rows.get(i).row()));
+        }
+        return created;
+    }
+
+    private BatchResult update(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return new BatchResult(List.of(), List.of(), List.of());
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_PRODUCT, setter(rows, (ps, row) -> {
+            bindProduct(ps, row);
+            ps.setLong(5, row.id());
+        }));
+
+        List<ProductResponse> updated = new ArrayList<>(rows.size());
+        List<PendingRow> missing = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            PendingRow row = rows.get(i);
+            if (counts[i] == 0) {
+                missing.add(row);
+            } else {
+                updated.add(toResponse(row.row().id(), row.row()));
+            }
+        }
+        return new BatchResult(List.of(), updated, missing);
+    }
+
+    private void appendEvents(String eventType, List<ProductResponse> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT, products, products.size(), (ps, product) -> {
+            ps.setString(1, AGGREGATE_TYPE);
+            ps.setLong(2, product.id());
+            ps.setString(3, eventType);
+            ps.setString(4, toJson(product));
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    private static void bindProduct(PreparedStatement ps, ProductImportRow row) throws SQLException {
+        ps.setString(1, row.name());
+        ps.setString(2, row.description());
+        ps.setBigDecimal(3, row.price());
+        ps.setInt(4, row.stockQuantity());
+    }
+
+    private static BatchPreparedStatementSetter setter(List<PendingRow> rows, RowBinder binder) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                binder.bind(ps, rows.get(i).row());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        };
+    }
+
+    private static ProductResponse toResponse(Long id, ProductImportRow row) {
+        return new ProductResponse(id, row.name(), row.description(), row.price(), row.stockQuantity());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize change event payload", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ProductImportRow parse(String line) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement ps, ProductImportRow row) throws SQLException;
+    }
+
+    private record PendingRow(long line, ProductImportRow row) {
+    }
+
+    private record BatchResult(List<ProductResponse> created, List<ProductResponse> updated, List<PendingRow> missing) {
+    }
+
+    /**
+     * Column positions taken from the header row, so columns may come in any
+     * order and id may be left out.
+     */
+    record CsvColumns(int id, int name, int description, int price, int stockQuantity) {
+
+        static CsvColumns parse(String header) {
+            List<String> names = splitCsvLine(header).stream()
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT).replace("_", ""))
+                    .toList();
+            CsvColumns columns = new CsvColumns(names.indexOf("id"), names.indexOf("name"),
+                    names.indexOf("description"), names.indexOf("price"), names.indexOf("stockquantity"));
+            if (columns.name() < 0 || columns.price() < 0 || columns.stockQuantity() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "CSV header must contain name, price and stockQuantity columns");
+            }
+            return columns;
+        }
+
+        ProductImportRow toRow(String line) {
+            List<String> fields = splitCsvLine(line);
+            String id = field(fields, id());
+            String price = field(fields, price());
+            String stockQuantity = field(fields, stockQuantity());
+            return new ProductImportRow(
+                    id == null ? null : Long.valueOf(id),
+                    field(fields, name()),
+                    field(fields, description()),
+                    price == null ? null : new BigDecimal(price),
+                    stockQuantity == null ? null : Integer.valueOf(stockQuantity));
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        // RFC 4180 quoting within a single line; quoted fields cannot span lines
+        private static List<String> splitCsvLine(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static class ImportProgress {
+        private final int maxErrors;
+        private final List<BulkImportError> errors = new ArrayList<>();
+        private long processed;
+        private long created;
+        private long updated;
+        private long failed;
+
+        ImportProgress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            // Only the first errors are kept so a bad file cannot exhaust memory
+            if (errors.size() < maxErrors) {
+                errors.add(new BulkImportError(line, message));
+            }
+        }
+
+        BulkImportResponse toResponse() {
+            return new BulkImportResponse(processed, created, updated, failed, errors);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductChangesResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Bounded in-memory log of product writes that downstream near-caches poll to
+ * invalidate stale snapshots. The epoch changes on every restart so consumers
+ * know to drop everything when the log was lost.
+ */
+@Component
+public class ProductChangeLog {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final TreeMap<Long, Long> changes = new TreeMap<>();
+    private final int capacity;
+    private long version;
+
+    public ProductChangeLog(@Value("${application.config.change-log-capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void record(Long productId) {
+        long current = ++version;
+        changes.put(current, productId);
+        changes.headMap(current - capacity, true).clear();
+    }
+
+    public synchronized ProductChangesResponse changesSince(long since) {
+        long current = version;
+        if (since >= current) {
+            return new ProductChangesResponse(epoch, current, true, List.of());
+        }
+
+        Map.Entry<Long, Long> oldest = changes.firstEntry();
+        if (oldest == null || oldest.getKey() > since + 1) {
+            // Entries the caller has not seen were already trimmed
+            return new ProductChangesResponse(epoch, current, false, List.of());
+        }
+
+        return new ProductChangesResponse(epoch, current, true,
+                changes.subMap(since, false, current, true).values().stream().distinct().toList());
+    }
+}
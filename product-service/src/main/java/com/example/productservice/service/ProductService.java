@@ -1,21 +1,85 @@
 package com.example.productservice.service;
 
+import com.example.productservice.dto.ProductChangesResponse;
+import com.example.productservice.dto.ProductPageResponse;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.StockConfirmRequest;
+import com.example.productservice.dto.StockReleaseRequest;
+import com.example.productservice.dto.StockReservationItem;
+import com.example.productservice.dto.StockReservationRequest;
+import com.example.productservice.dto.StockReservationResponse;
 import com.example.productservice.entity.Product;
+import com.example.productservice.entity.ReservedStock;
+import com.example.productservice.entity.StockReservation;
+import com.example.productservice.exception.InsufficientStockException;
+import com.example.productservice.exception.ProductNotFoundException;
+import com.example.productservice.exception.ReservationNotFoundException;
 import com.example.productservice.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.productservice.repository.StockReservationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
 public class ProductService {
+    private static final String AGGREGATE_TYPE = "product";
+
     private final ProductRepository productRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductChangeLog productChangeLog;
+    private final ChangeEventOutbox changeEventOutbox;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight<Long, Optional<ProductResponse>> productLookups;
+
+    @Value("${application.config.max-page-size:1000}")
+    private int maxPageSize;
 
+    @Value("${application.config.max-search-results:100}")
+    private int maxSearchResults;
+
+    public ProductService(ProductRepository productRepository,
+            StockReservationRepository stockReservationRepository,
+            ProductChangeLog productChangeLog,
+            ChangeEventOutbox changeEventOutbox,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.productChangeLog = productChangeLog;
+        this.changeEventOutbox = changeEventOutbox;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.productLookups = new SingleFlight<>("product-lookup", meterRegistry);
+    }
+
+    @Transactional
     public ProductResponse createProduct(ProductRequest request) {
         Product product = Product.builder()
                 .name(request.name())
@@ -25,7 +89,9 @@ public class ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
-        return mapToResponse(savedProduct);
+        ProductResponse response = mapToResponse(savedProduct);
+        changeEventOutbox.append(AGGREGATE_TYPE, response.id(), "ProductCreated", response);
+        return response;
     }
 
     public List<ProductResponse> getAllProducts() {
@@ -34,33 +100,226 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
-    public List<ProductResponse> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name).stream()
+    public ProductPageResponse getProductPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<ProductResponse> items = productRepository
+                .findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(pageSize)).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        Long nextCursor = items.size() < pageSize ? null : items.get(items.size() - 1).id();
+        return new ProductPageResponse(items, nextCursor);
+    }
+
+    public List<ProductResponse> getLowStockProducts(int threshold, int limit) {
+        return productRepository.findByStockQuantityLessThanEqualOrderByStockQuantityAscIdAsc(threshold,
+                        PageRequest.ofSize(Math.max(1, Math.min(limit, maxPageSize)))).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public void streamProducts(OutputStream out) throws IOException {
+        try (Stream<Product> products = productRepository.streamAll();
+                JsonGenerator generator = objectMapper.createGenerator(out)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .setRootValueSeparator(null)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                generator.writeObject(mapToResponse(product));
+                generator.writeRaw('\n');
+                // Detach so the persistence context does not grow with the catalog
+                entityManager.detach(product);
+            }
+        }
+    }
+
+    public List<ProductResponse> searchProducts(String query, boolean prefix, int page, int size) {
+        String pattern = escapeLike(query.trim());
+        int limit = Math.max(1, Math.min(size, maxSearchResults));
+        long offset = (long) Math.max(page, 0) * limit;
+        List<Product> products = prefix
+                ? productRepository.searchByNamePrefix(pattern, limit, offset)
+                : productRepository.searchByName(pattern, limit, offset);
+        return products.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        if (ids.size() > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxPageSize + " ids per batch");
+        }
+        return productRepository.findAllById(ids).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        return mapToResponse(product);
+        // Hot products are read by many orders at once; concurrent reads of one id share a query
+        return productLookups.execute(id, () -> productRepository.findById(id).map(this::mapToResponse))
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
     }
 
     @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
 
         product.setName(request.name());
         product.setDescription(request.description());
         product.setPrice(request.price());
         product.setStockQuantity(request.stockQuantity());
 
-        return mapToResponse(productRepository.save(product));
+        ProductResponse response = mapToResponse(productRepository.save(product));
+        recordChangesAfterCommit(List.of(id));
+        changeEventOutbox.append(AGGREGATE_TYPE, id, "ProductUpdated", response);
+        return response;
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        recordChangesAfterCommit(List.of(id));
+        changeEventOutbox.append(AGGREGATE_TYPE, id, "ProductDeleted", Map.of("id", id));
+    }
+
+    /**
+     * Takes the stock for every item or none and records what was taken under
+     * the caller's reservation key; only that reservation can be handed back
+     * by {@link #releaseStock}. A key the caller already used returns its
+     * reservation instead, taking the stock again only if it was released,
+     * and flagged confirmed if it is still held and was already confirmed.
+     */
+    @Transactional
+    public StockReservationResponse reserveStock(StockReservationRequest request) {
+        String userId = getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        UUID reservationId = UUID.randomUUID();
+        if (stockReservationRepository.insertIfAbsent(reservationId, userId, request.reservationKey(), now) == 0) {
+            return retake(userId, request.reservationKey(), now);
+        }
+
+        Map<Long, Integer> quantities = aggregateQuantities(request);
+        takeStock(quantities);
+        StockReservation reservation = stockReservationRepository.findById(reservationId)
+                .orElseThrow(() -> new IllegalStateException("Reservation vanished: " + reservationId));
+        quantities.forEach((productId, quantity) -> reservation.getItems().add(new ReservedStock(productId, quantity)));
+        return new StockReservationResponse(reservationId, false);
+    }
+
+    /**
+     * Marks an open reservation of the caller's as confirmed, i.e. its id
+     * reached the caller, so {@link StockReservationSweeper} leaves it alone.
+     * Confirming twice is harmless.
+     */
+    @Transactional
+    public void confirmReservation(StockConfirmRequest request) {
+        UUID reservationId = request.reservationId();
+        if (stockReservationRepository.markConfirmed(reservationId, getCurrentUserId(), LocalDateTime.now()) == 0) {
+            throw new ReservationNotFoundException("No open reservation with id: " + reservationId);
+        }
+    }
+
+    /** Returns the stock of an open reservation held by the caller, at most once. */
+    @Transactional
+    public void releaseStock(StockReleaseRequest request) {
+        UUID reservationId = request.reservationId();
+        if (stockReservationRepository.markReleased(reservationId, getCurrentUserId(), LocalDateTime.now()) == 0) {
+            throw new ReservationNotFoundException("No open reservation with id: " + reservationId);
+        }
+        returnStock(reservationId);
+    }
+
+    /** Returns the stock of a reservation still unconfirmed since before the cutoff; false if it no longer is. */
+    @Transactional
+    public boolean releaseExpiredReservation(UUID reservationId, LocalDateTime cutoff) {
+        if (stockReservationRepository.markExpired(reservationId, cutoff, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        returnStock(reservationId);
+        return true;
+    }
+
+    public ProductChangesResponse getChangesSince(long since) {
+        return productChangeLog.changesSince(since);
+    }
+
+    private StockReservationResponse retake(String userId, String reservationKey, LocalDateTime now) {
+        StockReservation existing = stockReservationRepository.findByUserIdAndReservationKey(userId, reservationKey)
+                .orElseThrow(() -> new IllegalStateException("No reservation with key: " + reservationKey));
+        if (existing.getReleasedAt() == null) {
+            return new StockReservationResponse(existing.getId(), existing.getConfirmedAt() != null);
+        }
+        if (stockReservationRepository.reopen(existing.getId(), now) == 1) {
+            takeStock(reservedQuantities(existing));
+        }
+        return new StockReservationResponse(existing.getId(), false);
+    }
+
+    private void takeStock(Map<Long, Integer> quantities) {
+        // Rows are locked in id order so concurrent multi-item reservations cannot deadlock
+        quantities.forEach((productId, quantity) -> {
+            if (productRepository.decrementStock(productId, quantity) == 0) {
+                if (!productRepository.existsById(productId)) {
+                    throw new ProductNotFoundException("Product not found with id: " + productId);
+                }
+                throw new InsufficientStockException("Insufficient stock for product: " + productId);
+            }
+        });
+        recordChangesAfterCommit(quantities.keySet());
+        appendStockEvents("StockReserved", quantities);
+    }
+
+    private void returnStock(UUID reservationId) {
+        Map<Long, Integer> quantities = reservedQuantities(stockReservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException("No open reservation with id: " + reservationId)));
+        // A product deleted since the reservation simply matches no row
+        quantities.forEach(productRepository::incrementStock);
+        recordChangesAfterCommit(quantities.keySet());
+        appendStockEvents("StockReleased", quantities);
+    }
+
+    private static Map<Long, Integer> reservedQuantities(StockReservation reservation) {
+        return reservation.getItems().stream()
+                .collect(Collectors.toMap(ReservedStock::getProductId, ReservedStock::getQuantity,
+                        Integer::sum, TreeMap::new));
+    }
+
+    private Map<Long, Integer> aggregateQuantities(StockReservationRequest request) {
+        return request.items().stream()
+                .collect(Collectors.toMap(StockReservationItem::productId, StockReservationItem::quantity,
+                        Integer::sum, TreeMap::new));
+    }
+
+    /**
+     * Near-caches refetch a product once its change is visible in the log, so
+     * the change is only recorded after the new row has been committed.
+     */
+    private void recordChangesAfterCommit(Collection<Long> productIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productIds.forEach(productChangeLog::record);
+            }
+        });
+    }
+
+    private void appendStockEvents(String eventType, Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> changeEventOutbox.append(AGGREGATE_TYPE, productId, eventType,
+                new StockReservationItem(productId, quantity)));
+    }
+
+    private String getCurrentUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            return jwt.getSubject();
+        }
+        throw new IllegalStateException("User not authenticated");
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     private ProductResponse mapToResponse(Product product) {
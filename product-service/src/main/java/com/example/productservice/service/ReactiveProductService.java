@@ -0,0 +1,100 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductPageResponse;
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.entity.ProductRow;
+import com.example.productservice.exception.ProductNotFoundException;
+import com.example.productservice.repository.ReactiveProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Catalog reads over R2DBC. Mirrors the read methods of {@link ProductService}
+ * without holding a request thread or JDBC connection while Postgres answers.
+ */
+@Service
+@Profile("reactive-reads")
+public class ReactiveProductService {
+    private final ReactiveProductRepository productRepository;
+    private final SingleFlight<Long, ProductResponse> productLookups;
+
+    @Value("${application.config.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${application.config.max-search-results:100}")
+    private int maxSearchResults;
+
+    public ReactiveProductService(ReactiveProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productLookups = new SingleFlight<>("reactive-product-lookup", meterRegistry);
+    }
+
+    public Flux<ProductResponse> getAllProducts() {
+        return productRepository.findAll().map(this::mapToResponse);
+    }
+
+    public Mono<ProductPageResponse> getProductPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        return productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(pageSize))
+                .map(this::mapToResponse)
+                .collectList()
+                .map(items -> new ProductPageResponse(items,
+                        items.size() < pageSize ? null : items.get(items.size() - 1).id()));
+    }
+
+    public Flux<ProductResponse> getLowStockProducts(int threshold, int limit) {
+        return productRepository.findByStockQuantityLessThanEqualOrderByStockQuantityAscIdAsc(threshold,
+                        PageRequest.ofSize(Math.max(1, Math.min(limit, maxPageSize))))
+                .map(this::mapToResponse);
+    }
+
+    public Flux<ProductResponse> streamProducts() {
+        return productRepository.streamAll().map(this::mapToResponse);
+    }
+
+    public Flux<ProductResponse> searchProducts(String query, boolean prefix, int page, int size) {
+        String pattern = escapeLike(query.trim());
+        int limit = Math.max(1, Math.min(size, maxSearchResults));
+        long offset = (long) Math.max(page, 0) * limit;
+        Flux<ProductRow> products = prefix
+                ? productRepository.searchByNamePrefix(pattern, limit, offset)
+                : productRepository.searchByName(pattern, limit, offset);
+        return products.map(this::mapToResponse);
+    }
+
+    public Flux<ProductResponse> getProductsByIds(List<Long> ids) {
+        if (ids.size() > maxPageSize) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxPageSize + " ids per batch"));
+        }
+        return productRepository.findAllById(ids).map(this::mapToResponse);
+    }
+
+    public Mono<ProductResponse> getProductById(Long id) {
+        // As in ProductService, concurrent reads of one id share a query
+        return productLookups.executeReactive(id, () -> productRepository.findById(id).map(this::mapToResponse))
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product not found with id: " + id)));
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private ProductResponse mapToResponse(ProductRow product) {
+        return new ProductResponse(
+                product.id(),
+                product.name(),
+                product.description(),
+                product.price(),
+                product.stockQuantity());
+    }
+}
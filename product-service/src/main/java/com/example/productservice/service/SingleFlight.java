@@ -0,0 +1,117 @@
+package com.example.productservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller (the leader)
+ * runs the load and callers arriving before it finishes wait for its result
+ * instead of loading again. The leader's result or failure is shared with
+ * every caller already waiting, so an outage costs one timeout rather than one
+ * per caller. Nothing is kept once the load completes: the next caller after a
+ * failure starts a fresh load, and caching is left to the caller.
+ */
+class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    SingleFlight(String name, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("singleflight.calls", leaders, LongAdder::sum)
+                .description("Keys loaded by the caller (leader) or taken from a load in flight (follower)")
+                .tags("name", name, "role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("singleflight.calls", followers, LongAdder::sum)
+                .tags("name", name, "role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of lookups served by another caller's load since startup")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("singleflight.in.flight", inFlight, Map::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            leaders.increment();
+            return lead(key, call, loader);
+        }
+        followers.increment();
+        return await(existing);
+    }
+
+    /**
+     * The reactive form of {@link #execute}. The leader's Mono is subscribed
+     * once, independently of its caller, so a caller cancelling does not cancel
+     * the load for the others; an empty result is shared as empty.
+     */
+    Mono<V> executeReactive(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                followers.increment();
+                return Mono.fromFuture(existing, true);
+            }
+            leaders.increment();
+            loader.get().toFuture().whenComplete((value, failure) -> {
+                inFlight.remove(key, call);
+                if (failure != null) {
+                    call.completeExceptionally(failure);
+                } else {
+                    call.complete(value);
+                }
+            });
+            return Mono.fromFuture(call, true);
+        });
+    }
+
+    // Calls leave the map before completing, so a caller arriving after a failure starts a new load
+    private V lead(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, call);
+        call.complete(value);
+        return value;
+    }
+
+    private double coalescingRatio() {
+        long led = leaders.sum();
+        long followed = followers.sum();
+        return led + followed == 0 ? 0 : (double) followed / (led + followed);
+    }
+
+    /** Waits for a load in flight and rethrows the leader's failure as it was thrown. */
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            } else if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.productservice.service;
+
+import com.example.productservice.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Returns the stock of reservations that were never confirmed, e.g. when the
+ * caller timed out before it read the reservation id and then gave up. The
+ * hold timeout must outlast the caller's own retries (order-service's pending
+ * timeout), so an order still being placed keeps its stock.
+ */
+@Component
+@Slf4j
+public class StockReservationSweeper {
+
+    private final ProductService productService;
+    private final StockReservationRepository stockReservationRepository;
+    private final Duration holdTimeout;
+    private final int batchSize;
+
+    public StockReservationSweeper(ProductService productService,
+            StockReservationRepository stockReservationRepository,
+            @Value("${application.config.stock-reservation.hold-timeout:10m}") Duration holdTimeout,
+            @Value("${application.config.stock-reservation.sweep-batch-size:100}") int batchSize) {
+        this.productService = productService;
+        this.stockReservationRepository = stockReservationRepository;
+        this.holdTimeout = holdTimeout;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.stock-reservation.sweep-interval-ms:60000}")
+    public void releaseUnconfirmedReservations() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(holdTimeout);
+        int released = 0;
+        List<UUID> expired;
+        do {
+            expired = stockReservationRepository.findUnconfirmedBefore(cutoff, PageRequest.ofSize(batchSize));
+            for (UUID reservationId : expired) {
+                // Each in its own transaction, so one batch does not hold many product rows locked
+                if (productService.releaseExpiredReservation(reservationId, cutoff)) {
+                    released++;
+                }
+            }
+        } while (expired.size() == batchSize);
+        if (released > 0) {
+            log.warn("Released {} reservations left unconfirmed for more than {}", released, holdTimeout);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS products (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(255)   NOT NULL,
+    description    VARCHAR(255),
+    price          NUMERIC(38, 2) NOT NULL,
+    stock_quantity INTEGER        NOT NULL
+);
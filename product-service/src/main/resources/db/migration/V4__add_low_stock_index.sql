@@ -0,0 +1,3 @@
+-- Low-stock dashboard reads walk this index from the bottom and stop at the threshold,
+-- so their cost follows the number of low-stock products, not the catalog size.
+CREATE INDEX IF NOT EXISTS idx_products_stock_quantity ON products (stock_quantity, id);
@@ -0,0 +1,23 @@
+-- A release returns exactly what one reservation took, once, so callers cannot add stock freely.
+-- Callers name each reservation with a key (one per order), so a retried reserve gets the same
+-- reservation back instead of taking the stock again.
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id              UUID PRIMARY KEY,
+    user_id         VARCHAR(255) NOT NULL,
+    reservation_key VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    confirmed_at    TIMESTAMP(6),
+    released_at     TIMESTAMP(6),
+    CONSTRAINT uk_stock_reservations_user_key UNIQUE (user_id, reservation_key)
+);
+
+CREATE TABLE IF NOT EXISTS stock_reservation_items (
+    reservation_id UUID    NOT NULL REFERENCES stock_reservations (id) ON DELETE CASCADE,
+    product_id     BIGINT  NOT NULL,
+    quantity       INTEGER NOT NULL,
+    PRIMARY KEY (reservation_id, product_id)
+);
+
+-- Lets the sweeper find reservations nobody confirmed without scanning settled ones.
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_unconfirmed ON stock_reservations (created_at)
+    WHERE confirmed_at IS NULL AND released_at IS NULL;
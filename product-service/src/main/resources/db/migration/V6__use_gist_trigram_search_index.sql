@@ -0,0 +1,5 @@
+-- A GiST trigram index can return rows in distance order (KNN), so a ranked search reads only the
+-- top matches instead of scoring and sorting every row that contains the term. It also serves the
+-- LIKE filter, so it replaces the GIN index.
+DROP INDEX IF EXISTS idx_products_name_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm_gist ON products USING gist (lower(name) gist_trgm_ops);
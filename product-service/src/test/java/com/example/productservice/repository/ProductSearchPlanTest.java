@@ -0,0 +1,72 @@
+package com.example.productservice.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks on a migrated, seeded catalog that ranked search walks the trigram
+ * index in distance order, so a common term does not sort all its matches.
+ */
+class ProductSearchPlanTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrateAndSeed() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .load()
+                .migrate();
+
+        jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        // Every name contains "product", so the term matches the whole catalog
+        jdbc.update("""
+                INSERT INTO products (name, description, price, stock_quantity)
+                SELECT 'Product ' || n, 'Seeded product', 10, 100
+                FROM generate_series(1, 50000) AS n
+                """);
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void rankedSearchIsReadInDistanceOrderFromTheTrigramIndex() throws NoSuchMethodException {
+        assertReadInDistanceOrder(ProductRepository.class.getMethod("searchByName", String.class, int.class, long.class)
+                .getAnnotation(org.springframework.data.jpa.repository.Query.class).value());
+    }
+
+    @Test
+    void reactiveRankedSearchIsReadInDistanceOrderFromTheTrigramIndex() throws NoSuchMethodException {
+        assertReadInDistanceOrder(ReactiveProductRepository.class.getMethod("searchByName", String.class, int.class, long.class)
+                .getAnnotation(org.springframework.data.r2dbc.repository.Query.class).value());
+    }
+
+    // Plans the repository's own query text, so a change to its ordering is caught here
+    private static void assertReadInDistanceOrder(String query) {
+        assertThat(plan(query
+                .replace(":query", "'product'")
+                .replace(":limit", "20")
+                .replace(":offset", "0")))
+                .contains("Index Scan using idx_products_name_trgm_gist")
+                .contains("Order By")
+                .doesNotContain("Sort");
+    }
+
+    private static String plan(String query) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + query, String.class));
+    }
+}
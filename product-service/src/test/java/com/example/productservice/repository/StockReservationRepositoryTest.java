@@ -0,0 +1,88 @@
+package com.example.productservice.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the reservation queries against the migrated schema: a repeated key
+ * inserts nothing, and only unconfirmed, unreleased reservations expire.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class StockReservationRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private StockReservationRepository repository;
+
+    @Test
+    void repeatedKeyInsertsNothingAndFindsTheFirstReservation() {
+        UUID first = UUID.randomUUID();
+
+        assertThat(repository.insertIfAbsent(first, "user-1", "order:7", NOW)).isEqualTo(1);
+        assertThat(repository.insertIfAbsent(UUID.randomUUID(), "user-1", "order:7", NOW)).isZero();
+        // Keys are per user
+        assertThat(repository.insertIfAbsent(UUID.randomUUID(), "user-2", "order:7", NOW)).isEqualTo(1);
+
+        assertThat(repository.findByUserIdAndReservationKey("user-1", "order:7"))
+                .hasValueSatisfying(reservation -> assertThat(reservation.getId()).isEqualTo(first));
+    }
+
+    @Test
+    void onlyUnconfirmedReservationsExpire() {
+        UUID confirmed = UUID.randomUUID();
+        UUID released = UUID.randomUUID();
+        UUID abandoned = UUID.randomUUID();
+        repository.insertIfAbsent(confirmed, "user-1", "order:1", NOW.minusHours(1));
+        repository.insertIfAbsent(released, "user-1", "order:2", NOW.minusHours(1));
+        repository.insertIfAbsent(abandoned, "user-1", "order:3", NOW.minusHours(1));
+        repository.insertIfAbsent(UUID.randomUUID(), "user-1", "order:4", NOW);
+        assertThat(repository.markConfirmed(confirmed, "user-1", NOW)).isEqualTo(1);
+        assertThat(repository.markReleased(released, "user-1", NOW)).isEqualTo(1);
+
+        LocalDateTime cutoff = NOW.minusMinutes(10);
+        assertThat(repository.findUnconfirmedBefore(cutoff, PageRequest.ofSize(10))).containsExactly(abandoned);
+        assertThat(repository.markExpired(confirmed, cutoff, NOW)).isZero();
+        assertThat(repository.markExpired(abandoned, cutoff, NOW)).isEqualTo(1);
+        assertThat(repository.markExpired(abandoned, cutoff, NOW)).isZero();
+    }
+
+    @Test
+    void releasedReservationIsReopenedOnce() {
+        UUID reservation = UUID.randomUUID();
+        repository.insertIfAbsent(reservation, "user-1", "order:1", NOW);
+        repository.markReleased(reservation, "user-1", NOW);
+
+        assertThat(repository.reopen(reservation, NOW)).isEqualTo(1);
+        assertThat(repository.reopen(reservation, NOW)).isZero();
+        assertThat(repository.markConfirmed(reservation, "user-1", NOW)).isEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class EmbeddedPostgresConfig {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+    }
+}
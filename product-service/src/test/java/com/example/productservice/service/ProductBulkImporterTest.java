@@ -0,0 +1,152 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.BulkImportError;
+import com.example.productservice.dto.BulkImportResponse;
+import com.example.productservice.dto.ProductImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductBulkImporterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ProductBulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        importer = new ProductBulkImporter(jdbcTemplate, transactionTemplate, new ProductChangeLog(100),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 2, 100);
+    }
+
+    @Test
+    void quotedCsvFieldsKeepCommasAndEscapedQuotes() {
+        ProductImportRow row = ProductBulkImporter.CsvColumns.parse("name,description,price,stockQuantity")
+                .toRow("\"Mug, large\",\"The \"\"best\"\" mug\",9.99,5");
+
+        assertThat(row).isEqualTo(new ProductImportRow(null, "Mug, large", "The \"best\" mug",
+                new BigDecimal("9.99"), 5));
+    }
+
+    @Test
+    void unterminatedQuoteIsMalformed() {
+        ProductBulkImporter.CsvColumns columns = ProductBulkImporter.CsvColumns.parse("name,price,stockQuantity");
+
+        assertThatThrownBy(() -> columns.toRow("\"Mug,9.99,5")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void csvColumnsAreMappedByHeaderNameInAnyOrder() {
+        ProductImportRow row = ProductBulkImporter.CsvColumns.parse("Stock_Quantity, PRICE ,name,id")
+                .toRow("7,1.50,Pen,42");
+
+        assertThat(row).isEqualTo(new ProductImportRow(42L, "Pen", null, new BigDecimal("1.50"), 7));
+    }
+
+    @Test
+    void csvHeaderWithoutRequiredColumnsIsRejected() {
+        assertThatThrownBy(() -> ProductBulkImporter.CsvColumns.parse("name,description,price"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void rejectedBatchIsBisectedSoOnlyTheOffendingRowFails() throws IOException {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        AtomicLong ids = new AtomicLong();
+        // Inserts fail as a whole when any row in them is named Dup, like a unique constraint would
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                    KeyHolder keys = invocation.getArgument(2);
+                    PreparedStatement ps = mock(PreparedStatement.class);
+                    for (int i = 0; i < setter.getBatchSize(); i++) {
+                        setter.setValues(ps, i);
+                    }
+                    ArgumentCaptor<String> names = ArgumentCaptor.forClass(String.class);
+                    verify(ps, times(setter.getBatchSize())).setString(eq(1), names.capture());
+                    if (names.getAllValues().contains("Dup")) {
+                        throw new DuplicateKeyException("duplicate key");
+                    }
+                    names.getAllValues().forEach(name -> keys.getKeyList().add(Map.of("id", ids.incrementAndGet())));
+                    return new int[setter.getBatchSize()];
+                });
+
+        BulkImportResponse response = importer.importCsv(reader("""
+                name,price,stockQuantity
+                Pen,1.50,7
+                Mug,-1,5
+                Dup,2.00,3
+
+                Plate,4.00,1
+                """));
+
+        // Batches of two valid rows: lines 2 and 4, then line 6; line 3 fails validation before any batch.
+        // The first batch is rejected and retried as [2] and [4].
+        verify(transactionTemplate, times(4)).execute(any());
+        assertThat(response.processed()).isEqualTo(4);
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(response.errors()).extracting(BulkImportError::line).containsExactly(3L, 4L);
+        assertThat(response.errors().get(0).message()).isEqualTo("price Price must be positive");
+        assertThat(response.errors().get(1).message()).isEqualTo("Rejected by the database: duplicate key");
+    }
+
+    @Test
+    void overLongNameIsRejectedBeforeAnyBatch() throws IOException {
+        BulkImportResponse response = importer.importCsv(reader("name,price,stockQuantity\n"
+                + "x".repeat(256) + ",1.00,1\n"));
+
+        verify(transactionTemplate, times(0)).execute(any());
+        assertThat(response.failed()).isEqualTo(1);
+        assertThat(response.errors()).extracting(BulkImportError::message)
+                .containsExactly("name Name must be at most 255 characters");
+    }
+
+    @Test
+    void nullNdjsonLineIsMalformed() throws IOException {
+        BulkImportResponse response = importer.importNdjson(reader("""
+                null
+                {"name":
+                """));
+
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(response.errors()).extracting(BulkImportError::line).containsExactly(1L, 2L);
+        assertThat(response.errors()).extracting(BulkImportError::message).allMatch(m -> m.startsWith("Malformed row"));
+    }
+
+    private static BufferedReader reader(String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentReactiveLookupsShareOneLoad() {
+        Sinks.One<String> result = Sinks.one();
+        AtomicInteger loads = new AtomicInteger();
+
+        Mono<String> leader = singleFlight.executeReactive(1L, () -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        }).cache();
+        leader.subscribe();
+        CompletableFuture<String> follower = singleFlight.executeReactive(1L, () -> {
+            loads.incrementAndGet();
+            return Mono.just("loaded again");
+        }).toFuture();
+        result.tryEmitValue("product");
+
+        assertThat(follower.join()).isEqualTo("product");
+        assertThat(leader.block(Duration.ofSeconds(5))).isEqualTo("product");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void cancelledLeaderDoesNotCancelTheSharedLoad() {
+        Sinks.One<String> result = Sinks.one();
+
+        Disposable leader = singleFlight.executeReactive(1L, result::asMono).subscribe();
+        CompletableFuture<String> follower = singleFlight.executeReactive(1L, () -> Mono.just("loaded again")).toFuture();
+        leader.dispose();
+        result.tryEmitEmpty();
+
+        assertThat(follower.join()).isNull();
+        assertThat(meterRegistry.get("singleflight.calls").tag("role", "follower").functionCounter().count())
+                .isEqualTo(1);
+    }
+}